@@ -6,8 +6,15 @@ import { useRelationshipStore } from '@/store/useRelationshipStore'
 const SearchSection = () => {
   const [query, setQuery] = useState('')
   const [isTyping, setIsTyping] = useState(false)
-  const { searchResults, searchCount, searchLoading, searchHasMore, searchQuery, searchUsers } =
-    useRelationshipStore()
+  const {
+    searchResults,
+    searchCount,
+    searchCountCapped,
+    searchLoading,
+    searchHasMore,
+    searchQuery,
+    searchUsers,
+  } = useRelationshipStore()
 
   // Clear results immediately when query changes (before debounce)
   useEffect(() => {
@@ -94,7 +101,10 @@ const SearchSection = () => {
       {query.trim() && (
         <div>
           <h3 className="text-lg font-semibold mb-4">
-            Search Results {searchCount > 0 && `(${searchCount})`}
+            Search Results{' '}
+            {searchCount > 0
+              ? `(${searchCount}${searchCountCapped ? '+' : ''})`
+              : searchHasMore && searchResults.length > 0 && `(${searchResults.length}+)`}
           </h3>
           <UserList
             users={searchResults}
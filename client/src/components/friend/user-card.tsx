@@ -161,6 +161,11 @@ const UserCard = React.memo(({ user, showActions = true }: UserCardProps) => {
 
             <div>
               <h3 className="font-semibold truncate">{user.fullName}</h3>
+              {!!user.mutualFriendCount && (
+                <p className="text-xs text-base-content/60">
+                  {user.mutualFriendCount} mutual {user.mutualFriendCount === 1 ? 'friend' : 'friends'}
+                </p>
+              )}
               {getStatusBadge()}
             </div>
           </div>
@@ -29,7 +29,7 @@ const MessageInput = () => {
   const typingTimeoutRef = useRef<NodeJS.Timeout | null>(null)
   const isTypingRef = useRef<boolean>(false)
 
-  const { sendMessage } = useMessageStore()
+  const { sendMessage, sendTextMessage } = useMessageStore()
   const { selectedChat, sendTypingEvent, replyingToMessage, setReplyingToMessage } = useChatStore()
   const { authUser } = useAuthStore()
 
@@ -120,20 +120,13 @@ const MessageInput = () => {
     // Send GIF message immediately when selected (like Messenger/Discord)
     if (!selectedChat || !authUser) return
 
-    const formData = new FormData()
-    const sendMessageRequest = {
+    sendTextMessage({
       chatId: selectedChat.id,
       senderId: authUser.id,
+      clientMessageId: crypto.randomUUID(),
       mediaUrl: gifUrl, // Send GIF URL as mediaUrl
       ...(replyingToMessage && { replyToMessageId: replyingToMessage.id }),
-    }
-
-    formData.append(
-      'sendMessageRequest',
-      new Blob([JSON.stringify(sendMessageRequest)], { type: 'application/json' })
-    )
-
-    sendMessage(formData)
+    })
     setShowGifPicker(false)
     setReplyingToMessage(null)
   }
@@ -162,21 +155,13 @@ const MessageInput = () => {
 
     // Send text message if there is text
     if (text.trim()) {
-      const formData = new FormData()
-
-      const sendMessageRequest = {
+      await sendTextMessage({
         chatId: selectedChat.id,
         senderId: authUser.id,
+        clientMessageId: crypto.randomUUID(),
         content: text.trim(),
         ...(replyingToMessage && { replyToMessageId: replyingToMessage.id }),
-      }
-
-      formData.append(
-        'sendMessageRequest',
-        new Blob([JSON.stringify(sendMessageRequest)], { type: 'application/json' })
-      )
-
-      await sendMessage(formData)
+      })
     }
 
     // Send 2 separate messages if both text and media are present
@@ -185,6 +170,7 @@ const MessageInput = () => {
       const sendMessageRequest = {
         chatId: selectedChat.id,
         senderId: authUser.id,
+        clientMessageId: crypto.randomUUID(),
         ...(replyingToMessage && { replyToMessageId: replyingToMessage.id }),
       }
 
@@ -123,6 +123,14 @@ export default function ChatMessage({
             <div className={`text-xs italic text-base-content/50 mb-1 px-1`}>(edited)</div>
           )}
 
+          {isMyMessage && message.isPending && (
+            <div className="text-xs italic text-base-content/50 mb-1 px-1">Sending...</div>
+          )}
+
+          {isMyMessage && message.isFailed && (
+            <div className="text-xs italic text-error mb-1 px-1">Failed to send</div>
+          )}
+
           {/* Reply Preview */}
           {message.replyToMessageId && (
             <div className="max-w-full">
@@ -5,6 +5,7 @@ import type { Chat } from '@/types/Chat'
 import type { Message } from '@/types/Message'
 import type { IMessage, StompSubscription } from '@stomp/stompjs'
 import { useWebSocketStore } from './useWebSocketStore'
+import { useRelationshipStore } from './useRelationshipStore'
 import { ChatEvent } from '@/types/enum/ChatEvent'
 import type { WebSocketResponse } from '@/types/response/WebSocketResponse'
 
@@ -56,6 +57,7 @@ interface ChatState {
   addMessage: (message: Message) => void
   updateMessage: (message: Message) => void
   deleteMessage: (messageId: string) => void
+  updateMessageStatus: (messageId: string, confirmed: boolean) => void
   markChatAsRead: (chatId: string) => Promise<void>
   updateMessageReadStatus: (userId: string, readAt: string) => void
   sendTypingEvent: (chatId: string, userId: string) => void
@@ -354,8 +356,17 @@ export const useChatStore = create<ChatState>((set, get) => ({
         get().removeTypingUser(message.senderId)
       }
 
+      // Frames can arrive out of order, place the message by its sequence number
+      const messages = state.selectedChatMessages
+      let insertAt = messages.length
+      if (message.seq !== undefined) {
+        while (insertAt > 0 && (messages[insertAt - 1].seq ?? 0) > message.seq) {
+          insertAt--
+        }
+      }
+
       return {
-        selectedChatMessages: [...state.selectedChatMessages, message],
+        selectedChatMessages: [...messages.slice(0, insertAt), message, ...messages.slice(insertAt)],
       }
     }),
 
@@ -383,6 +394,14 @@ export const useChatStore = create<ChatState>((set, get) => ({
       }
     }),
 
+  // Messages broadcast before they were stored are confirmed or failed afterwards
+  updateMessageStatus: (messageId: string, confirmed: boolean) =>
+    set((state) => ({
+      selectedChatMessages: state.selectedChatMessages.map((message) =>
+        message.id === messageId ? { ...message, isPending: false, isFailed: !confirmed } : message
+      ),
+    })),
+
   markChatAsRead: async (chatId: string) => {
     try {
       await axios.put(`/api/v1/chats/mark-as-read/${chatId}`)
@@ -592,12 +611,23 @@ export const useChatStore = create<ChatState>((set, get) => ({
 
     chatSubscription?.unsubscribe()
 
+    // Group chats stay open across blocks, the topic still carries blocked users' events and they are dropped here
+    useRelationshipStore.getState().getBlockedUserIds()
+
     const subscription = client.subscribe(`/topic/${chatId}`, (msg: IMessage) => {
       const response = JSON.parse(msg.body) as WebSocketResponse<any>
       console.log('Received message:', response)
 
       const { event, data } = response
 
+      const actorId = event === ChatEvent.USER_TYPING ? data.userId : data.senderId
+      if (
+        (event === ChatEvent.USER_TYPING || event === ChatEvent.NEW_MESSAGE || event === ChatEvent.MESSAGE_EDITED) &&
+        useRelationshipStore.getState().blockedUserIds.includes(actorId)
+      ) {
+        return
+      }
+
       switch (event) {
         case ChatEvent.USER_TYPING:
           get().addTypingUser(data.userId)
@@ -619,7 +649,18 @@ export const useChatStore = create<ChatState>((set, get) => ({
 
         case ChatEvent.MESSAGE_DELETED:
           get().deleteMessage(data.id)
-          get().updateSelectedChatOrder(data, true)
+          // Expired messages are not moved to the top, the notification updates the chat if it was the last message
+          if (!data.expiresAt) {
+            get().updateSelectedChatOrder(data, true)
+          }
+          break
+
+        case ChatEvent.MESSAGE_CONFIRMED:
+          get().updateMessageStatus(data.id, true)
+          break
+
+        case ChatEvent.MESSAGE_FAILED:
+          get().updateMessageStatus(data.id, false)
           break
 
         default:
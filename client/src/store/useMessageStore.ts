@@ -1,21 +1,27 @@
 import { create } from 'zustand'
 import axios from '@/lib/axios-custom'
+import { isAxiosError } from 'axios'
 import toast from 'react-hot-toast'
 import type { SystemMessageAction } from '@/types/enum/SystemMessageAction'
+import type { SendMessageRequest } from '@/types/request/SendMessageRequest'
+import type { MessageStatusResponse } from '@/types/response/MessageStatusResponse'
 import { useVideoCallStore } from './useVideoCall'
+import { useWebSocketStore } from './useWebSocketStore'
 
 type MessageState = {
   isLoading: boolean
   isDeleting: boolean
   isUpdating: boolean
   sendMessage: (formdata: FormData) => Promise<void>
+  sendTextMessage: (request: SendMessageRequest) => Promise<void>
+  handleMessageReceipt: (receipt: MessageStatusResponse) => void
   sendVideoCallSystemMessage: (action: SystemMessageAction, chatId?: string) => Promise<void>
   updateMessage: (messageId: string, newContent: string) => Promise<void>
   deleteMessage: (messageId: string) => Promise<void>
   cleanup: () => void
 }
 
-export const useMessageStore = create<MessageState>((set) => ({
+export const useMessageStore = create<MessageState>((set, get) => ({
   isLoading: false,
   isDeleting: false,
   isUpdating: false,
@@ -23,7 +29,13 @@ export const useMessageStore = create<MessageState>((set) => ({
   sendMessage: async (formdata) => {
     set({ isLoading: true })
     try {
-      await axios.post('/api/v1/messages/send', formdata)
+      try {
+        await axios.post('/api/v1/messages/send', formdata)
+      } catch (error) {
+        // No response means the send may or may not have arrived, the client message id makes the retry safe
+        if (!isAxiosError(error) || error.response) throw error
+        await axios.post('/api/v1/messages/send', formdata)
+      }
     } catch (error) {
       console.error(error)
       toast.error('Failed to send message')
@@ -32,6 +44,32 @@ export const useMessageStore = create<MessageState>((set) => ({
     }
   },
 
+  // Text and GIF messages go over the open STOMP connection, the receipt arrives on /user/queue/receipts
+  sendTextMessage: async (request) => {
+    const client = useWebSocketStore.getState().client
+    if (client && client.connected) {
+      client.publish({
+        destination: `/app/chat/${request.chatId}/send`,
+        body: JSON.stringify(request),
+      })
+      return
+    }
+
+    const formData = new FormData()
+    formData.append(
+      'sendMessageRequest',
+      new Blob([JSON.stringify(request)], { type: 'application/json' })
+    )
+    await get().sendMessage(formData)
+  },
+
+  handleMessageReceipt: (receipt) => {
+    if (receipt.error) {
+      console.error('Message was not sent:', receipt)
+      toast.error('Failed to send message')
+    }
+  },
+
   sendVideoCallSystemMessage: async (action: SystemMessageAction, chatId?: string) => {
     try {
       const targetChatId = chatId || useVideoCallStore.getState().currentChatId
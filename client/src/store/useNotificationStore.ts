@@ -3,9 +3,12 @@ import type { IMessage } from '@stomp/stompjs'
 import { useWebSocketStore } from './useWebSocketStore'
 import { useAuthStore } from './useAuthStore'
 import { useChatStore } from './useChatStore'
+import { useRelationshipStore } from './useRelationshipStore'
 import axios from '@/lib/axios-custom'
 import { ChatEvent } from '@/types/enum/ChatEvent'
 import type { WebSocketResponse } from '@/types/response/WebSocketResponse'
+import type { RelationshipEventResponse } from '@/types/response/RelationshipEventResponse'
+import { NotificationType } from '@/types/enum/NotificationType'
 
 export type Notification = {
   id: string
@@ -27,6 +30,7 @@ interface NotificationState {
   handleLastMessageDeleted: (data: any) => void
   handleNewChat: (data: any) => void
   handleUpdateChat: (data: any) => void
+  handleRelationshipUpdated: (data: RelationshipEventResponse[]) => void
 
   subscribeToNotifications: () => void
   unsubscribeFromNotifications: () => void
@@ -223,7 +227,8 @@ export const useNotificationStore = create<NotificationState>((set, get) => ({
             ...chat,
             lastMessageContent: null,
             isLastMessageDeleted: true,
-            lastMessageTime: new Date().toISOString(),
+            // An expired message keeps its place in the list
+            lastMessageTime: data.expiresAt ? chat.lastMessageTime : new Date().toISOString(),
           }
         }
         return chat
@@ -324,6 +329,28 @@ export const useNotificationStore = create<NotificationState>((set, get) => ({
     }
   },
 
+  handleRelationshipUpdated: (data: RelationshipEventResponse[]) => {
+    console.log('[Notification] Relationships updated:', data)
+
+    useRelationshipStore.getState().applyRelationshipEvents(data)
+
+    data.forEach((event) => {
+      if (event.type === NotificationType.FRIEND_REQUEST_RECEIVED) {
+        get().addNotification({
+          id: `${event.type}-${event.user.id}-${event.createdAt}`,
+          content: `${event.user.fullName} sent you a friend request`,
+          timestamp: event.createdAt,
+        })
+      } else if (event.type === NotificationType.FRIEND_REQUEST_ACCEPTED) {
+        get().addNotification({
+          id: `${event.type}-${event.user.id}-${event.createdAt}`,
+          content: `${event.user.fullName} accepted your friend request`,
+          timestamp: event.createdAt,
+        })
+      }
+    })
+  },
+
   subscribeToNotifications: () => {
     const client = useWebSocketStore.getState().client
     const user = useAuthStore.getState().authUser
@@ -369,6 +396,10 @@ export const useNotificationStore = create<NotificationState>((set, get) => ({
           get().handleUpdateChat(data)
           break
 
+        case ChatEvent.RELATIONSHIP_UPDATED:
+          get().handleRelationshipUpdated(data)
+          break
+
         default:
           console.error(`Unhandled chat event type: ${event}`, data)
           return
@@ -2,9 +2,11 @@ import { create } from 'zustand'
 import axios from '@/lib/axios-custom'
 import toast from 'react-hot-toast'
 import { RelationshipStatus } from '@/types/enum/RelationshipStatus'
+import { NotificationType } from '@/types/enum/NotificationType'
 import type { UserSearchResponse } from '@/types/response/UserSearchResponse'
 import type { PageResponse } from '@/types/response/PageResponse'
 import type { UserProfileResponse } from '@/types/response/UserProfileResponse'
+import type { RelationshipEventResponse } from '@/types/response/RelationshipEventResponse'
 
 interface RelationshipCounts {
   friendsCount: number
@@ -43,10 +45,14 @@ interface RelationshipState {
   blockedLoading: boolean
   blockedHasMore: boolean
   blockedPage: number
+  // Everyone the current user blocked, used to hide their events in group chats
+  blockedUserIds: string[]
 
   // Search
   searchResults: UserSearchResponse[]
   searchCount: number
+  // The server stopped counting at a cap, searchCount is a lower bound
+  searchCountCapped: boolean
   searchLoading: boolean
   searchHasMore: boolean
   searchPage: number
@@ -66,6 +72,7 @@ interface RelationshipState {
   getIncomingRequests: (reset?: boolean) => Promise<void>
   getSentRequests: (reset?: boolean) => Promise<void>
   getBlockedUsers: (reset?: boolean) => Promise<void>
+  getBlockedUserIds: () => Promise<void>
   searchUsers: (query: string, reset?: boolean) => Promise<void>
   searchFriends: (query: string, reset?: boolean) => Promise<void>
 
@@ -93,6 +100,7 @@ interface RelationshipState {
       | 'unblockUser',
     userId: string
   ) => void
+  applyRelationshipEvents: (events: RelationshipEventResponse[]) => void
   cleanup: () => void
 }
 
@@ -128,9 +136,11 @@ export const useRelationshipStore = create<RelationshipState>((set, get) => ({
   blockedLoading: false,
   blockedHasMore: true,
   blockedPage: 1,
+  blockedUserIds: [],
 
   searchResults: [],
   searchCount: 0,
+  searchCountCapped: false,
   searchLoading: false,
   searchHasMore: true,
   searchPage: 1,
@@ -284,12 +294,22 @@ export const useRelationshipStore = create<RelationshipState>((set, get) => ({
     }
   },
 
+  getBlockedUserIds: async () => {
+    try {
+      const response = await axios.get('/api/v1/user-nodes/blocked/ids')
+      set({ blockedUserIds: response.data.result })
+    } catch (error) {
+      console.error('Failed to fetch blocked user ids:', error)
+    }
+  },
+
   // Search users
   searchUsers: async (query: string, reset = false) => {
     if (!query.trim()) {
       set({
         searchResults: [],
         searchCount: 0,
+        searchCountCapped: false,
         searchQuery: '',
         searchPage: 1,
         searchHasMore: true,
@@ -305,19 +325,24 @@ export const useRelationshipStore = create<RelationshipState>((set, get) => ({
 
     try {
       const page = reset ? 1 : searchPage
+      // The exact total costs a count query, it is only requested once the user pages past the first results
+      const includeTotal = page === 2
       const response = await axios.get(
         `/api/v1/user-nodes/search?query=${encodeURIComponent(
           query
-        )}&pageNumber=${page}&pageSize=20`
+        )}&pageNumber=${page}&pageSize=20&includeTotal=${includeTotal}`
       )
       const data: PageResponse<UserSearchResponse> = response.data.result
 
       set((state) => ({
         searchResults: reset ? data.content : [...state.searchResults, ...data.content],
-        searchCount: data.totalElements,
+        // Without a requested total the count is only known once the last page is in, 0 until then
+        searchCount:
+          includeTotal || data.hasMore === false ? data.totalElements : reset ? 0 : state.searchCount,
+        searchCountCapped: includeTotal ? data.totalCapped === true : reset ? false : state.searchCountCapped,
         searchQuery: query,
         searchPage: page + 1,
-        searchHasMore: page < data.totalPages,
+        searchHasMore: data.hasMore ?? page < data.totalPages,
         searchLoading: false,
       }))
     } catch (error) {
@@ -446,6 +471,7 @@ export const useRelationshipStore = create<RelationshipState>((set, get) => ({
       get().updateUserProfileStatus(userId, RelationshipStatus.BLOCKED)
       get().removeUserFromLists(userId)
       get().updateCounts('blockUser', userId)
+      set((state) => ({ blockedUserIds: [...state.blockedUserIds, userId] }))
       toast.success('User blocked')
     } catch (error) {
       console.error('Failed to block user:', error)
@@ -460,6 +486,7 @@ export const useRelationshipStore = create<RelationshipState>((set, get) => ({
       get().updateUserProfileStatus(userId, RelationshipStatus.NONE)
       get().removeUserFromLists(userId)
       get().updateCounts('unblockUser', userId)
+      set((state) => ({ blockedUserIds: state.blockedUserIds.filter((id) => id !== userId) }))
       toast.success('User unblocked')
     } catch (error) {
       console.error('Failed to unblock user:', error)
@@ -545,6 +572,56 @@ export const useRelationshipStore = create<RelationshipState>((set, get) => ({
     })
   },
 
+  // Apply changes made by other users, pushed over the notification queue
+  applyRelationshipEvents: (events: RelationshipEventResponse[]) => {
+    events.forEach(({ type, user }) => {
+      get().updateUserStatus(user.id, user.relationshipStatus)
+      get().updateUserProfileStatus(user.id, user.relationshipStatus)
+
+      set((state) => {
+        const counts = { ...state.counts }
+        const wasIncoming = state.incomingRequests.some((r) => r.id === user.id)
+
+        switch (type) {
+          case NotificationType.FRIEND_REQUEST_RECEIVED:
+            if (wasIncoming) return {}
+            counts.incomingRequestsCount += 1
+            return { counts, incomingRequests: [user, ...state.incomingRequests] }
+
+          case NotificationType.FRIEND_REQUEST_CANCELLED:
+            // A repeated or unknown cancellation removes nothing and must not lower the count
+            if (!wasIncoming) return {}
+            counts.incomingRequestsCount = Math.max(0, counts.incomingRequestsCount - 1)
+            return {
+              counts,
+              incomingRequests: state.incomingRequests.filter((r) => r.id !== user.id),
+            }
+
+          case NotificationType.FRIEND_REQUEST_ACCEPTED:
+            counts.sentRequestsCount = Math.max(0, counts.sentRequestsCount - 1)
+            counts.friendsCount += 1
+            return {
+              counts,
+              sentRequests: state.sentRequests.filter((r) => r.id !== user.id),
+              friends: state.friends.some((f) => f.id === user.id)
+                ? state.friends
+                : [user, ...state.friends],
+            }
+
+          case NotificationType.FRIEND_REQUEST_REJECTED:
+            counts.sentRequestsCount = Math.max(0, counts.sentRequestsCount - 1)
+            return {
+              counts,
+              sentRequests: state.sentRequests.filter((r) => r.id !== user.id),
+            }
+
+          default:
+            return {}
+        }
+      })
+    })
+  },
+
   cleanup: () => {
     set({
       userProfile: null,
@@ -577,9 +654,11 @@ export const useRelationshipStore = create<RelationshipState>((set, get) => ({
       blockedLoading: false,
       blockedHasMore: true,
       blockedPage: 1,
+      blockedUserIds: [],
 
       searchResults: [],
       searchCount: 0,
+      searchCountCapped: false,
       searchLoading: false,
       searchHasMore: true,
       searchPage: 1,
@@ -2,6 +2,7 @@ import { create } from 'zustand'
 import { Client } from '@stomp/stompjs'
 import SockJS from 'sockjs-client'
 import { useNotificationStore } from './useNotificationStore'
+import { useMessageStore } from './useMessageStore'
 
 type WebSocketState = {
   client: Client | null
@@ -35,6 +36,10 @@ export const useWebSocketStore = create<WebSocketState>((set, get) => ({
       onConnect: () => {
         set({ client: newClient })
         console.log('WebSocket connected')
+        // Subscriptions don't survive a reconnect, the receipt queue is resubscribed on every connect
+        newClient.subscribe('/user/queue/receipts', (msg) => {
+          useMessageStore.getState().handleMessageReceipt(JSON.parse(msg.body))
+        })
         if (!didSubscribeToNotifications) {
           useNotificationStore.getState().subscribeToNotifications()
           didSubscribeToNotifications = true
@@ -1,4 +1,5 @@
 import type { MessageType } from './enum/MessageType'
+import type { RelationshipStatus } from './enum/RelationshipStatus'
 
 export interface Chat {
   id: string
@@ -13,6 +14,7 @@ export interface Chat {
   lastMessageMediaUrl?: string | null
   lastMessageTime?: string | null
   isLastMessageDeleted?: boolean
+  messageExpirySeconds?: number | null
   admins: string[] | null
   createdAt: string
   updatedAt: string
@@ -26,4 +28,5 @@ export interface ParticipantInfo {
   id: string
   fullName: string
   profileImageUrl: string
+  relationshipStatus?: RelationshipStatus | null
 }
@@ -6,6 +6,8 @@ export interface Message {
   senderId?: string
   senderName?: string
   chatId: string
+  seq?: number
+  clientMessageId?: string
   messageType?: MessageType
   mediaUrl?: string | null
   replyToMessageId?: string | null
@@ -17,6 +19,9 @@ export interface Message {
   isReplyMessageDeleted?: boolean
   isEdited?: boolean
   isDeleted?: boolean
+  isPending?: boolean
+  isFailed?: boolean
+  expiresAt?: string | null
   createdAt: string
   updatedAt: string
   readInfo?: MessageReadInfo[]
@@ -2,10 +2,13 @@ export const ChatEvent = {
   NEW_MESSAGE: 'NEW_MESSAGE',
   MESSAGE_EDITED: 'MESSAGE_EDITED',
   MESSAGE_DELETED: 'MESSAGE_DELETED',
+  MESSAGE_CONFIRMED: 'MESSAGE_CONFIRMED',
+  MESSAGE_FAILED: 'MESSAGE_FAILED',
   CHAT_READ: 'CHAT_READ',
   NEW_CHAT: 'NEW_CHAT',
   CHAT_UPDATED: 'CHAT_UPDATED',
   USER_TYPING: 'USER_TYPING',
+  RELATIONSHIP_UPDATED: 'RELATIONSHIP_UPDATED',
 } as const
 
 export type ChatEvent = (typeof ChatEvent)[keyof typeof ChatEvent]
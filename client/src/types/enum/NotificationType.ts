@@ -0,0 +1,8 @@
+export const NotificationType = {
+  FRIEND_REQUEST_RECEIVED: 'FRIEND_REQUEST_RECEIVED',
+  FRIEND_REQUEST_ACCEPTED: 'FRIEND_REQUEST_ACCEPTED',
+  FRIEND_REQUEST_REJECTED: 'FRIEND_REQUEST_REJECTED',
+  FRIEND_REQUEST_CANCELLED: 'FRIEND_REQUEST_CANCELLED',
+} as const
+
+export type NotificationType = (typeof NotificationType)[keyof typeof NotificationType]
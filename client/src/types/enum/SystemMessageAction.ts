@@ -3,6 +3,7 @@ export const SystemMessageAction = {
   CREATE_GROUP_CHAT: 'CREATE_GROUP_CHAT',
   UPDATE_GROUP_CHAT_NAME: 'UPDATE_GROUP_CHAT_NAME',
   UPDATE_GROUP_CHAT_IMAGE: 'UPDATE_GROUP_CHAT_IMAGE',
+  UPDATE_MESSAGE_EXPIRY: 'UPDATE_MESSAGE_EXPIRY',
   VIDEO_CALL_START: 'VIDEO_CALL_START',
   VIDEO_CALL_JOIN: 'VIDEO_CALL_JOIN',
   VIDEO_CALL_LEAVE: 'VIDEO_CALL_LEAVE',
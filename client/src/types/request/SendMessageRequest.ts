@@ -0,0 +1,8 @@
+export interface SendMessageRequest {
+  chatId: string
+  senderId: string
+  clientMessageId: string
+  content?: string
+  mediaUrl?: string
+  replyToMessageId?: string
+}
@@ -0,0 +1,7 @@
+export interface MessageStatusResponse {
+  id?: string
+  chatId?: string
+  seq?: number
+  clientMessageId?: string
+  error?: string
+}
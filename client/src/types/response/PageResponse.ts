@@ -4,4 +4,6 @@ export interface PageResponse<T> {
   totalElements: number
   totalPages: number
   content: T[]
+  hasMore?: boolean
+  totalCapped?: boolean
 }
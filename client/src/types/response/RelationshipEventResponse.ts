@@ -0,0 +1,8 @@
+import type { NotificationType } from '../enum/NotificationType'
+import type { UserSearchResponse } from './UserSearchResponse'
+
+export interface RelationshipEventResponse {
+  type: NotificationType
+  user: UserSearchResponse
+  createdAt: string
+}
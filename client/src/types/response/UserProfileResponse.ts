@@ -6,4 +6,5 @@ export interface UserProfileResponse {
   profileImageUrl?: string
   bio?: string
   status: RelationshipStatus
+  mutualFriendCount?: number
 }
@@ -5,4 +5,5 @@ export interface UserSearchResponse {
   fullName: string
   profileImageUrl: string
   relationshipStatus: RelationshipStatus
+  mutualFriendCount?: number
 }
@@ -21,6 +21,10 @@ export const renderLastSystemMessage = (
         return `${actorName} updated the chat name to "${parsedContent.metadata.newGroupChatName}"`
       case SystemMessageAction.UPDATE_GROUP_CHAT_IMAGE:
         return `${actorName} updated the chat image`
+      case SystemMessageAction.UPDATE_MESSAGE_EXPIRY:
+        return parsedContent.metadata.messageExpirySeconds
+          ? `${actorName} turned on disappearing messages (${formatExpiry(parsedContent.metadata.messageExpirySeconds)})`
+          : `${actorName} turned off disappearing messages`
       case SystemMessageAction.VIDEO_CALL_START:
         return `${actorName} started a video call`
       case SystemMessageAction.VIDEO_CALL_JOIN:
@@ -61,6 +65,10 @@ export const renderSystemMessage = (
         return `${actorName} updated the chat name to "${parsedContent.metadata.newGroupChatName}"`
       case SystemMessageAction.UPDATE_GROUP_CHAT_IMAGE:
         return `${actorName} updated the chat image`
+      case SystemMessageAction.UPDATE_MESSAGE_EXPIRY:
+        return parsedContent.metadata.messageExpirySeconds
+          ? `${actorName} turned on disappearing messages (${formatExpiry(parsedContent.metadata.messageExpirySeconds)})`
+          : `${actorName} turned off disappearing messages`
       case SystemMessageAction.VIDEO_CALL_START:
         return `${actorName} started a video call`
       case SystemMessageAction.VIDEO_CALL_JOIN:
@@ -76,3 +84,9 @@ export const renderSystemMessage = (
     return '[Invalid system message]'
   }
 }
+
+const formatExpiry = (seconds: number) => {
+  if (seconds % 86400 === 0) return `${seconds / 86400} day${seconds === 86400 ? '' : 's'}`
+  if (seconds % 3600 === 0) return `${seconds / 3600} hour${seconds === 3600 ? '' : 's'}`
+  return `${Math.round(seconds / 60)} minute${seconds === 60 ? '' : 's'}`
+}
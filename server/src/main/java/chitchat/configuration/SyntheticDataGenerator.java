@@ -0,0 +1,358 @@
+package chitchat.configuration;
+
+import chitchat.model.Chat;
+import chitchat.model.Message;
+import chitchat.model.User;
+import chitchat.model.enumeration.MessageType;
+import chitchat.model.enumeration.RoleName;
+import chitchat.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+Generates a synthetic dataset on an empty database: users, a power-law friend graph,
+private and group chats and their message histories. Sizes are configured under data-init.*.
+Users are bulk-inserted into Mongo in parallel unordered batches, graph nodes and FRIEND edges
+are loaded into Neo4j with UNWIND batches.
+**/
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final int MONGO_BATCH_SIZE = 10_000;
+    private static final int NEO4J_BATCH_SIZE = 5_000;
+    private static final Duration HISTORY_SPAN = Duration.ofDays(365);
+    // User ids encode the user index in the ObjectId counter, which has 3 bytes
+    private static final int MAX_USERS = 0xFFFFFF;
+
+    private static final String[] FIRST_NAMES = {
+            "An", "Binh", "Chi", "Dung", "Giang", "Hanh", "Hieu", "Hoa", "Huong", "Khanh", "Lan", "Linh",
+            "Long", "Mai", "Minh", "Nam", "Ngoc", "Phuong", "Quang", "Thao", "Trang", "Tuan", "Vy", "Yen",
+            "Alice", "Ben", "Chloe", "Daniel", "Emma", "Liam", "Noah", "Olivia", "Sophia", "William"
+    };
+    private static final String[] MIDDLE_NAMES = {"Van", "Thi", "Duc", "Minh", "Ngoc", "Thanh", "Hoang", "Quoc"};
+    private static final String[] LAST_NAMES = {
+            "Nguyen", "Tran", "Le", "Pham", "Hoang", "Huynh", "Phan", "Vu", "Vo", "Dang", "Bui", "Do",
+            "Ho", "Ngo", "Duong", "Ly", "Smith", "Johnson", "Brown", "Taylor", "Wilson", "Davis"
+    };
+    private static final String[] MESSAGE_CONTENTS = {
+            "Hi!", "How are you?", "See you tomorrow", "Sounds good", "Thanks a lot", "On my way",
+            "Did you see that?", "Let's meet at 7", "Haha", "Ok", "Sure, why not", "Call me when you're free"
+    };
+
+    private static final String CREATE_USER_NODES_QUERY = """
+        UNWIND $rows AS row
+        MERGE (u:User {userId: row.userId})
+        ON CREATE SET u.id = randomUUID()
+        SET u.fullName = row.fullName,
+            u.bio = row.bio
+        """;
+
+    // Edges are generated without duplicates, so CREATE is safe and cheaper than MERGE
+    private static final String CREATE_FRIEND_EDGES_QUERY = """
+        UNWIND $rows AS row
+        MATCH (a:User {userId: row.a})
+        MATCH (b:User {userId: row.b})
+        CREATE (a)-[:FRIEND]->(b)
+        """;
+
+    private final UserRepository userRepository;
+    private final MongoTemplate mongoTemplate;
+    private final Neo4jClient neo4jClient;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${data-init.enabled:true}")
+    private boolean enabled;
+
+    @Value("${data-init.users:1000}")
+    private int userCount;
+
+    // Edges added per new user in the preferential attachment model, the average degree is twice this
+    @Value("${data-init.friends-per-user:5}")
+    private int friendsPerUser;
+
+    @Value("${data-init.private-chat-ratio:0.2}")
+    private double privateChatRatio;
+
+    @Value("${data-init.group-chats:50}")
+    private int groupChatCount;
+
+    @Value("${data-init.max-group-size:20}")
+    private int maxGroupSize;
+
+    @Value("${data-init.messages-per-chat:20}")
+    private int messagesPerChat;
+
+    @Value("${data-init.password:password}")
+    private String password;
+
+    @Value("${data-init.seed:42}")
+    private long seed;
+
+    // Ids are derived from the user index, so the generator never keeps a table of ids in memory
+    private final Date idDate = new Date();
+    private Instant historyStart;
+
+    @Override
+    public void run(String... args) {
+        if (!enabled) {
+            return;
+        }
+        if (userCount > MAX_USERS) {
+            throw new IllegalArgumentException("data-init.users must not exceed " + MAX_USERS);
+        }
+        if (userRepository.count() > 0) {
+            log.info("Users already exist. Skipping data initialization.");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        historyStart = Instant.now().minus(HISTORY_SPAN);
+
+        generateUsers();
+        generateUserNodes();
+        generateFriendGraphAndPrivateChats();
+        generateGroupChats();
+
+        log.info("Synthetic dataset with {} users generated in {} s", userCount, (System.currentTimeMillis() - startTime) / 1000);
+    }
+
+    private void generateUsers() {
+        // Every synthetic account shares one password, so it is hashed once instead of once per user
+        String encodedPassword = passwordEncoder.encode(password);
+        int batchCount = (userCount + MONGO_BATCH_SIZE - 1) / MONGO_BATCH_SIZE;
+
+        IntStream.range(0, batchCount).parallel().forEach(batch -> {
+            int from = batch * MONGO_BATCH_SIZE;
+            int to = Math.min(from + MONGO_BATCH_SIZE, userCount);
+            List<User> users = new ArrayList<>(to - from);
+
+            for (int i = from; i < to; i++) {
+                String username = "user" + (i + 1);
+                User user = User.builder()
+                        .id(userId(i))
+                        .fullName(fullName(i))
+                        .bio(username + " bio")
+                        .profileCompleted(true)
+                        .emailVerified(true)
+                        .username(username)
+                        .email(username + "@example.com")
+                        .password(encodedPassword)
+                        .role(RoleName.USER)
+                        .build();
+                user.setCreatedAt(historyStart);
+                users.add(user);
+            }
+
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+        });
+
+        log.info("Inserted {} users", userCount);
+    }
+
+    private void generateUserNodes() {
+        List<Map<String, Object>> rows = new ArrayList<>(NEO4J_BATCH_SIZE);
+
+        for (int i = 0; i < userCount; i++) {
+            rows.add(Map.of("userId", userId(i), "fullName", fullName(i), "bio", "user" + (i + 1) + " bio"));
+            if (rows.size() == NEO4J_BATCH_SIZE) {
+                neo4jClient.query(CREATE_USER_NODES_QUERY).bind(rows).to("rows").run();
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            neo4jClient.query(CREATE_USER_NODES_QUERY).bind(rows).to("rows").run();
+        }
+
+        log.info("Created {} user nodes", userCount);
+    }
+
+    /**
+    Barabasi-Albert preferential attachment: each new user befriends friendsPerUser existing users,
+    picked with probability proportional to their degree. This gives the heavy-tailed degree
+    distribution of real social graphs. Picking a uniform slot of the endpoint list is the same as
+    picking a user proportionally to its degree.
+    **/
+    private void generateFriendGraphAndPrivateChats() {
+        if (userCount < 2 || friendsPerUser < 1) {
+            return;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] endpoints = new int[(int) Math.min(Integer.MAX_VALUE - 8, 2L * friendsPerUser * userCount)];
+        int endpointCount = 0;
+        long edgeCount = 0;
+
+        List<Map<String, Object>> edgeRows = new ArrayList<>(NEO4J_BATCH_SIZE);
+        List<Chat> chats = new ArrayList<>();
+        Set<Integer> targets = new HashSet<>();
+
+        for (int user = 1; user < userCount; user++) {
+            targets.clear();
+            int wanted = Math.min(friendsPerUser, user);
+
+            while (targets.size() < wanted) {
+                // Until the graph has edges, attach uniformly
+                int target = endpointCount == 0 ? random.nextInt(user) : endpoints[random.nextInt(endpointCount)];
+                targets.add(target);
+            }
+
+            for (int target : targets) {
+                if (endpointCount + 2 <= endpoints.length) {
+                    endpoints[endpointCount++] = user;
+                    endpoints[endpointCount++] = target;
+                }
+                edgeRows.add(Map.of("a", userId(user), "b", userId(target)));
+                edgeCount++;
+
+                if (random.nextDouble() < privateChatRatio) {
+                    chats.add(buildChat(List.of(userId(user), userId(target)), null, random));
+                }
+            }
+
+            if (edgeRows.size() >= NEO4J_BATCH_SIZE) {
+                neo4jClient.query(CREATE_FRIEND_EDGES_QUERY).bind(edgeRows).to("rows").run();
+                edgeRows.clear();
+            }
+            if (chats.size() >= MONGO_BATCH_SIZE) {
+                insertChatsWithMessages(chats, random);
+                chats.clear();
+            }
+        }
+
+        if (!edgeRows.isEmpty()) {
+            neo4jClient.query(CREATE_FRIEND_EDGES_QUERY).bind(edgeRows).to("rows").run();
+        }
+        if (!chats.isEmpty()) {
+            insertChatsWithMessages(chats, random);
+        }
+
+        log.info("Created {} friend edges", edgeCount);
+    }
+
+    private void generateGroupChats() {
+        if (groupChatCount < 1 || userCount < 3) {
+            return;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed + 1);
+        List<Chat> chats = new ArrayList<>();
+
+        for (int group = 0; group < groupChatCount; group++) {
+            int size = 3 + random.nextInt(Math.max(1, Math.min(maxGroupSize, userCount) - 2));
+            Set<String> participants = new LinkedHashSet<>();
+            while (participants.size() < size) {
+                participants.add(userId(random.nextInt(userCount)));
+            }
+
+            chats.add(buildChat(new ArrayList<>(participants), "Group " + (group + 1), random));
+            if (chats.size() >= MONGO_BATCH_SIZE) {
+                insertChatsWithMessages(chats, random);
+                chats.clear();
+            }
+        }
+
+        if (!chats.isEmpty()) {
+            insertChatsWithMessages(chats, random);
+        }
+
+        log.info("Created {} group chats", groupChatCount);
+    }
+
+    private Chat buildChat(List<String> participants, String groupName, SplittableRandom random) {
+        boolean isGroupChat = groupName != null;
+        Chat chat = Chat.builder()
+                .id(new ObjectId().toHexString())
+                .name(groupName)
+                .isGroupChat(isGroupChat)
+                .participants(participants)
+                .admins(isGroupChat ? List.of(participants.getFirst()) : null)
+                .build();
+        // Chats open within the first half of the history window so their messages fit before now
+        chat.setCreatedAt(historyStart.plusSeconds(random.nextLong(HISTORY_SPAN.toSeconds() / 2)));
+        chat.setCreatedBy(participants.getFirst());
+        return chat;
+    }
+
+    private void insertChatsWithMessages(List<Chat> chats, SplittableRandom random) {
+        List<Message> messages = new ArrayList<>(MONGO_BATCH_SIZE);
+        long maxGapSeconds = HISTORY_SPAN.toSeconds() / 2 / Math.max(1, 2L * messagesPerChat);
+
+        for (Chat chat : chats) {
+            int count = messagesPerChat > 0 ? random.nextInt(2 * messagesPerChat + 1) : 0;
+            Instant time = chat.getCreatedAt();
+            Message lastMessage = null;
+
+            for (int i = 0; i < count; i++) {
+                time = time.plusSeconds(1 + random.nextLong(Math.max(1, maxGapSeconds)));
+                Message message = Message.builder()
+                        // Timestamped like a message sent at that time, the archive locates messages by their id
+                        .id(new ObjectId(Date.from(time)).toHexString())
+                        .chatId(chat.getId())
+                        .seq(i + 1L)
+                        .senderId(chat.getParticipants().get(random.nextInt(chat.getParticipants().size())))
+                        .content(MESSAGE_CONTENTS[random.nextInt(MESSAGE_CONTENTS.length)])
+                        .messageType(MessageType.TEXT)
+                        .build();
+                message.setCreatedAt(time);
+                message.setCreatedBy(message.getSenderId());
+                messages.add(message);
+                lastMessage = message;
+
+                if (messages.size() >= MONGO_BATCH_SIZE) {
+                    mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class).insert(messages).execute();
+                    messages.clear();
+                }
+            }
+
+            if (lastMessage != null) {
+                chat.setLastMessageId(lastMessage.getId());
+                chat.setLastMessageContent(lastMessage.getContent());
+                chat.setLastMessageSenderId(lastMessage.getSenderId());
+                chat.setLastMessageSenderName(fullNameOf(lastMessage.getSenderId()));
+                chat.setLastMessageType(lastMessage.getMessageType());
+                chat.setLastMessageTime(lastMessage.getCreatedAt());
+                chat.setLastMessageSeq(lastMessage.getSeq());
+                chat.setIsLastMessageDeleted(false);
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class).insert(messages).execute();
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Chat.class).insert(chats).execute();
+    }
+
+    private String userId(int index) {
+        return new ObjectId(idDate, index).toHexString();
+    }
+
+    // User ids carry their index in the counter, the last 3 bytes of the ObjectId
+    private String fullNameOf(String userId) {
+        byte[] bytes = new ObjectId(userId).toByteArray();
+        int index = (bytes[9] & 0xff) << 16 | (bytes[10] & 0xff) << 8 | (bytes[11] & 0xff);
+        return fullName(index);
+    }
+
+    // Derived from the seed and the index only, so the same user always gets the same name
+    private String fullName(int index) {
+        SplittableRandom random = new SplittableRandom(seed * 31 + index);
+        return LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " "
+                + MIDDLE_NAMES[random.nextInt(MIDDLE_NAMES.length)] + " "
+                + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+    }
+}
@@ -0,0 +1,29 @@
+package chitchat.configuration.mongo;
+
+import chitchat.model.Message;
+import chitchat.service.MessageBucketStore;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
+import org.springframework.stereotype.Component;
+
+/**
+Mirrors every update of a message into its bucket when bucketed storage is enabled,
+whichever repository, template or bulk call wrote it. New messages are appended to buckets by MessageBucketStore.reconcile().
+**/
+@Component
+@RequiredArgsConstructor
+public class MessageBucketCallback implements AfterSaveCallback<Message> {
+
+    private final MessageBucketStore messageBucketStore;
+
+    @Override
+    public Message onAfterSave(Message message, Document document, String collection) {
+        // Auditing stamps both dates with the same instant on insert, only later saves differ
+        boolean inserted = message.getUpdatedAt() != null && message.getUpdatedAt().equals(message.getCreatedAt());
+        if (messageBucketStore.isEnabled() && !inserted) {
+            messageBucketStore.store(message);
+        }
+        return message;
+    }
+}
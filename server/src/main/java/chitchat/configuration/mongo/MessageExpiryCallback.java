@@ -0,0 +1,24 @@
+package chitchat.configuration.mongo;
+
+import chitchat.model.Message;
+import chitchat.service.MessageExpiryService;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveCallback;
+import org.springframework.stereotype.Component;
+
+/**
+Hands every stored disappearing message to the expiry timer, whichever repository, template or bulk call wrote it.
+**/
+@Component
+@RequiredArgsConstructor
+public class MessageExpiryCallback implements AfterSaveCallback<Message> {
+
+    private final MessageExpiryService messageExpiryService;
+
+    @Override
+    public Message onAfterSave(Message message, Document document, String collection) {
+        messageExpiryService.track(message);
+        return message;
+    }
+}
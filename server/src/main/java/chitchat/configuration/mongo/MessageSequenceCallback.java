@@ -0,0 +1,26 @@
+package chitchat.configuration.mongo;
+
+import chitchat.model.Message;
+import chitchat.service.MessageSequencer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+/**
+Assigns the chat sequence number to every new message on its way to Mongo, whichever repository or
+template call inserts it. Updates of stored messages keep their number.
+**/
+@Component
+@RequiredArgsConstructor
+public class MessageSequenceCallback implements BeforeConvertCallback<Message> {
+
+    private final MessageSequencer messageSequencer;
+
+    @Override
+    public Message onBeforeConvert(Message message, String collection) {
+        if (message.getId() == null && message.getSeq() == null && message.getChatId() != null) {
+            message.setSeq(messageSequencer.next(message.getChatId()));
+        }
+        return message;
+    }
+}
@@ -0,0 +1,96 @@
+package chitchat.configuration.mongo;
+
+import chitchat.model.Message;
+import chitchat.model.MessageBucket;
+import chitchat.model.MessageSegment;
+import chitchat.model.ScheduledMessage;
+import chitchat.model.User;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexInitializer {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${messaging.buckets.enabled:false}")
+    private boolean bucketsEnabled;
+
+    @Value("${messaging.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    // Index creation is idempotent, so it can be applied on each startup
+    @PostConstruct
+    public void createIndexes() {
+        // Auto index creation is off, so the unique constraints of @Indexed are created here, named as Spring names them
+        mongoTemplate.indexOps(User.class).ensureIndex(new Index()
+                .on("username", Sort.Direction.ASC)
+                .unique()
+                .named("username"));
+
+        mongoTemplate.indexOps(User.class).ensureIndex(new Index()
+                .on("email", Sort.Direction.ASC)
+                .unique()
+                .named("email"));
+
+        // Serves chat history pages and the last sequence lookup, createdAt orders messages stored before sequencing
+        mongoTemplate.indexOps(Message.class).ensureIndex(new Index()
+                .on("chatId", Sort.Direction.ASC)
+                .on("seq", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.ASC)
+                .named("chat_seq_index"));
+
+        // Mongo removes disappearing messages once expiresAt has passed, sparse so messages that never expire aren't indexed
+        mongoTemplate.indexOps(Message.class).ensureIndex(new Index()
+                .on("expiresAt", Sort.Direction.ASC)
+                .expire(0)
+                .sparse()
+                .named("message_expiry_ttl"));
+
+        // Scheduled sends due within the timer horizon, and stale claims by status
+        mongoTemplate.indexOps(ScheduledMessage.class).ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("dueAt", Sort.Direction.ASC)
+                .named("scheduled_due_index"));
+
+        // A user's pending scheduled messages in due order
+        mongoTemplate.indexOps(ScheduledMessage.class).ensureIndex(new Index()
+                .on("senderId", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .on("dueAt", Sort.Direction.ASC)
+                .named("scheduled_sender_index"));
+
+        if (bucketsEnabled) {
+            // Finds the open bucket of the day a message is appended to
+            mongoTemplate.indexOps(MessageBucket.class).ensureIndex(new Index()
+                    .on("chatId", Sort.Direction.ASC)
+                    .on("day", Sort.Direction.ASC)
+                    .on("count", Sort.Direction.ASC)
+                    .named("bucket_append_index"));
+
+            // The bucket directory of a chat, history pages walk it by sequence number
+            mongoTemplate.indexOps(MessageBucket.class).ensureIndex(new Index()
+                    .on("chatId", Sort.Direction.ASC)
+                    .on("firstSeq", Sort.Direction.DESC)
+                    .named("bucket_directory_index"));
+        }
+
+        if (archiveEnabled) {
+            // The segment index of a chat, archived history pages walk it by sequence number
+            mongoTemplate.indexOps(MessageSegment.class).ensureIndex(new Index()
+                    .on("chatId", Sort.Direction.ASC)
+                    .on("firstSeq", Sort.Direction.DESC)
+                    .named("segment_directory_index"));
+        }
+
+        log.info("Mongo indexes verified");
+    }
+}
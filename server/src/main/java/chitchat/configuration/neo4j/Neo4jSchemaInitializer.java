@@ -0,0 +1,60 @@
+package chitchat.configuration.neo4j;
+
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class Neo4jSchemaInitializer {
+
+    public static final String USER_SEARCH_INDEX = "user_search_index";
+
+    // Every statement is idempotent, so the schema can be applied on each startup
+    private static final List<String> SCHEMA_STATEMENTS = List.of(
+            // Backs every (:User {userId: $id}) anchor with a unique range index instead of a label scan
+            "CREATE CONSTRAINT user_user_id_unique IF NOT EXISTS FOR (u:User) REQUIRE u.userId IS UNIQUE",
+            // Backs lookups by the generated node id used by Neo4jRepository.findById/save
+            "CREATE CONSTRAINT user_id_unique IF NOT EXISTS FOR (u:User) REQUIRE u.id IS UNIQUE",
+            // Supports ORDER BY fullName and prefix lookups on names
+            "CREATE INDEX user_full_name_index IF NOT EXISTS FOR (u:User) ON (u.fullName)"
+    );
+
+    private static final String FULL_TEXT_INDEX_STATEMENT =
+            "CREATE FULLTEXT INDEX " + USER_SEARCH_INDEX + " IF NOT EXISTS FOR (u:User) ON EACH [u.fullName]";
+
+    private final Neo4jClient neo4jClient;
+
+    // Resolved once at startup so searches don't run SHOW INDEXES on every request
+    @Getter
+    private volatile boolean fullTextIndexAvailable;
+
+    @PostConstruct
+    public void createSchema() {
+        for (String statement : SCHEMA_STATEMENTS) {
+            neo4jClient.query(statement).run();
+        }
+
+        // Search falls back to regex matching when the full-text index cannot be created
+        try {
+            neo4jClient.query(FULL_TEXT_INDEX_STATEMENT).run();
+        } catch (Exception e) {
+            log.warn("Could not create full-text index {}: {}", USER_SEARCH_INDEX, e.getMessage());
+        }
+
+        fullTextIndexAvailable = neo4jClient
+                .query("SHOW INDEXES YIELD name WHERE name = $name RETURN count(*) > 0")
+                .bind(USER_SEARCH_INDEX).to("name")
+                .fetchAs(Boolean.class)
+                .one()
+                .orElse(false);
+
+        log.info("Neo4j schema verified, full-text search {}", fullTextIndexAvailable ? "enabled" : "disabled");
+    }
+}
@@ -43,6 +43,7 @@ public class SecurityConfig {
     };
 
     private final String[] ADMIN_ENDPOINTS = {
+            "/api/v1/admin/**"
     };
 
     private final JwtAuthenticationFilter jwtAuthFilter;
@@ -53,8 +54,9 @@ public class SecurityConfig {
         http.csrf(AbstractHttpConfigurer::disable)
             .cors(Customizer.withDefaults())
             .authorizeHttpRequests(authorize -> authorize
-                    .requestMatchers(PUBLIC_ENDPOINT).permitAll()
+                    // Checked first, the catch-all public pattern would match admin paths as well
                     .requestMatchers(ADMIN_ENDPOINTS).hasRole("ADMIN")
+                    .requestMatchers(PUBLIC_ENDPOINT).permitAll()
                     .anyRequest().authenticated())
             .sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authenticationProvider(authenticationProvider())
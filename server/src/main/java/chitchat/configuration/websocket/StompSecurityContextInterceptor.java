@@ -0,0 +1,39 @@
+package chitchat.configuration.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+Exposes the user authenticated at the WebSocket handshake as the security context while an inbound
+STOMP frame is handled, so @MessageMapping handlers can use CurrentUserService like REST controllers
+without authenticating every frame again.
+**/
+@Component
+public class StompSecurityContextInterceptor implements ExecutorChannelInterceptor {
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user instanceof Authentication authentication) {
+            SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+            securityContext.setAuthentication(authentication);
+            SecurityContextHolder.setContext(securityContext);
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        // Inbound channel threads are pooled, nothing may leak into the next frame
+        SecurityContextHolder.clearContext();
+    }
+}
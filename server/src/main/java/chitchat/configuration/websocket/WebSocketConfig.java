@@ -1,6 +1,8 @@
 package chitchat.configuration.websocket;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -8,8 +10,11 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 
 @Configuration
 @EnableWebSocketMessageBroker
+@RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final StompSecurityContextInterceptor stompSecurityContextInterceptor;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic", "/queue"); // message destinations for clients
@@ -21,5 +26,13 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws") // endpoint to connect (e.g., ws://localhost:8080/ws)
                 .setAllowedOriginPatterns("*")
                 .withSockJS(); // fallback option
+        // Frames of a session are handled in the order they arrived, sends over the socket keep their order
+        registry.setPreserveReceiveOrder(true);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Frames are handled as the user authenticated at the handshake
+        registration.interceptors(stompSecurityContextInterceptor);
     }
 }
@@ -9,6 +9,21 @@ public class CacheConstant {
     public static final String INCOMING_REQUESTS_CACHE_PREFIX = "incoming:";
     public static final String BLOCKED_CACHE_PREFIX = "blocked:";
     public static final String SEARCH_CACHE_PREFIX = "search:";
+    public static final String RELATIONSHIPS_CACHE_PREFIX = "relationships:";
+    public static final String RELATIONSHIPS_VERSION_PREFIX = "relationships-version:";
+    public static final String RELATIONSHIPS_TOO_LARGE_PREFIX = "relationships-too-large:";
+    public static final String FRIEND_NAMES_CACHE_PREFIX = "friend-names:";
+    public static final String FRIEND_NAMES_VERSION_PREFIX = "friend-names-version:";
+    public static final String SUGGESTIONS_CACHE_PREFIX = "suggestions:";
+    public static final String STALE_SUGGESTIONS_KEY = "suggestions-stale";
+    public static final String AFFINITY_KEY_PREFIX = "affinity:";
+    public static final String AFFINITY_EPOCH_PREFIX = "affinity-epoch:";
+    public static final String CHAT_SEQUENCE_PREFIX = "chat-seq:";
+    public static final String MESSAGE_DEDUP_PREFIX = "message-dedup:";
+    public static final String MESSAGE_ARCHIVE_LOCK_KEY = "message-archive-lock";
+    public static final String USER_NAME_INDEX_CHANNEL = "user-name-index";
+    public static final String MESSAGE_BUCKET_LOCK_KEY = "message-bucket-lock";
+    public static final String MESSAGE_BUCKET_WATERMARK_KEY = "message-bucket-watermark";
 
     public static final Duration PROFILE_CACHE_TTL = Duration.ofDays(1);
     public static final Duration FRIENDS_CACHE_TTL = Duration.ofHours(12);
@@ -16,9 +31,21 @@ public class CacheConstant {
     public static final Duration INCOMING_REQUESTS_CACHE_TTL = Duration.ofMinutes(30);
     public static final Duration BLOCKED_CACHE_TTL = Duration.ofDays(1);
     public static final Duration SEARCH_CACHE_TTL = Duration.ofMinutes(5);
+    public static final Duration RELATIONSHIPS_CACHE_TTL = Duration.ofHours(1);
+    public static final Duration FRIEND_NAMES_CACHE_TTL = Duration.ofHours(1);
+    // Longer than every cache keyed by a version, so a version that expires back to 0 addresses no leftover entry
+    public static final Duration CACHE_VERSION_TTL = Duration.ofDays(1);
+    public static final Duration SUGGESTIONS_CACHE_TTL = Duration.ofDays(1);
+    public static final Duration AFFINITY_TTL = Duration.ofDays(90);
+    public static final Duration MESSAGE_DEDUP_TTL = Duration.ofHours(1);
+    public static final Duration MESSAGE_ARCHIVE_LOCK_TTL = Duration.ofHours(6);
+    public static final Duration MESSAGE_BUCKET_LOCK_TTL = Duration.ofMinutes(30);
 
     public static final int MAX_FRIENDS_TO_CACHE = 5000;
     public static final int MAX_INCOMING_REQUESTS_TO_CACHE = 5000;
     public static final int MAX_SENT_REQUESTS_TO_CACHE = 3000;
     public static final int MAX_BLOCKED_USERS_TO_CACHE = 1000;
+    public static final int MAX_RELATIONSHIPS_TO_CACHE = 10000;
+    public static final int MAX_SUGGESTIONS_TO_CACHE = 50;
+    public static final int MAX_AFFINITY_CONTACTS = 500;
 }
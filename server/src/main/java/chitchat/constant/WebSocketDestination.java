@@ -3,4 +3,6 @@ package chitchat.constant;
 public class WebSocketDestination {
     public static final String CHAT_TOPIC_PREFIX = "/topic/";
     public static final String USER_NOTIFICATION_PREFIX = "/queue/notifications/";
+    // Resolved per session through the /user prefix
+    public static final String USER_RECEIPT_QUEUE = "/queue/receipts";
 }
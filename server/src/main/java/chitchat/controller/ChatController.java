@@ -65,6 +65,17 @@ public class ChatController {
         );
     }
 
+    @PutMapping("/{chatId}/message-expiry")
+    public ResponseEntity<?> updateMessageExpiry(@PathVariable String chatId,
+                                                 @RequestParam(required = false) Long seconds) throws Exception {
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Message expiry updated successfully",
+                        chatService.updateMessageExpiry(chatId, seconds)
+                )
+        );
+    }
+
     @DeleteMapping("/{chatId}")
     public ResponseEntity<?> deleteChat(@PathVariable String chatId) {
         chatService.deleteChat(chatId);
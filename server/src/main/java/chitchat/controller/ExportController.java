@@ -0,0 +1,66 @@
+package chitchat.controller;
+
+import chitchat.model.enumeration.ExportFormat;
+import chitchat.service.interfaces.ExportService;
+import chitchat.service.interfaces.ExportService.ChatExport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+Chat history downloads. Byte ranges can't be resumed on content generated while it streams,
+so ranges are expressed in message sequence numbers: "Range: seq=1201-" continues an NDJSON export after line seq 1200,
+the end of the range is fixed by the X-Export-Last-Seq header of the first response.
+**/
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/export")
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+    private static final String RANGE_UNIT = "seq";
+    private static final Pattern SEQ_RANGE = Pattern.compile("seq=(\\d+)-(\\d*)");
+
+    private final ExportService exportService;
+
+    @GetMapping("/chats/{chatId}")
+    public ResponseEntity<StreamingResponseBody> exportChat(@PathVariable String chatId,
+                                                            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        Long fromSeq = null;
+        Long toSeq = null;
+        if (range != null) {
+            Matcher matcher = SEQ_RANGE.matcher(range.trim());
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Range must be in the form seq=<first>-[<last>]");
+            }
+            fromSeq = Long.parseLong(matcher.group(1));
+            toSeq = matcher.group(2).isEmpty() ? null : Long.parseLong(matcher.group(2));
+        }
+
+        // Validated before the response starts, errors still get a proper status
+        ChatExport chatExport = exportService.prepareChatExport(chatId, fromSeq, toSeq);
+
+        String fileName = "chat-" + chatId + (format == ExportFormat.ZIP ? ".zip" : ".ndjson");
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(range != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                .contentType(format == ExportFormat.ZIP ? ZIP : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, RANGE_UNIT)
+                .header("X-Export-Last-Seq", String.valueOf(chatExport.toSeq()));
+        if (range != null) {
+            response.header(HttpHeaders.CONTENT_RANGE,
+                    RANGE_UNIT + " " + chatExport.fromSeq() + "-" + chatExport.toSeq() + "/" + chatExport.lastSeq());
+        }
+
+        return response.body(output -> exportService.writeChatExport(chatExport, format, output));
+    }
+}
@@ -0,0 +1,62 @@
+package chitchat.controller;
+
+import chitchat.model.enumeration.ImportFormat;
+import chitchat.service.interfaces.ImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+Bulk onboarding endpoints. The request body is read as a stream (NDJSON or CSV with a header line)
+and the response is NDJSON with one progress line per processed batch and a final summary line.
+**/
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/admin/import")
+@PreAuthorize("hasRole('ADMIN')")
+public class ImportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ImportService importService;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping("/users")
+    public ResponseEntity<StreamingResponseBody> importUsers(@RequestParam(defaultValue = "NDJSON") ImportFormat format,
+                                                             HttpServletRequest request) throws IOException {
+        InputStream input = request.getInputStream();
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(output -> importService.importUsers(input, format, batch -> writeLine(output, batch)));
+    }
+
+    @PostMapping("/friendships")
+    public ResponseEntity<StreamingResponseBody> importFriendships(@RequestParam(defaultValue = "NDJSON") ImportFormat format,
+                                                                   HttpServletRequest request) throws IOException {
+        InputStream input = request.getInputStream();
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(output -> importService.importFriendships(input, format, batch -> writeLine(output, batch)));
+    }
+
+    // Flushed per batch so the client sees progress while the upload is still being processed
+    private void writeLine(OutputStream output, Object value) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(value));
+            output.write('\n');
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
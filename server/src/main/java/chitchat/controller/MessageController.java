@@ -1,15 +1,27 @@
 package chitchat.controller;
 
+import chitchat.dto.request.message.BatchSendMessageRequest;
 import chitchat.dto.request.message.SendMessageRequest;
 import chitchat.dto.request.message.UpdateMessageRequest;
+import chitchat.constant.WebSocketDestination;
 import chitchat.dto.response.ApiResponse;
+import chitchat.dto.response.message.MessageResponse;
+import chitchat.dto.response.message.MessageStatusResponse;
+import chitchat.exception.AuthenticationException;
 import chitchat.model.enumeration.SystemMessageAction;
 import chitchat.service.interfaces.MessageService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.security.Principal;
+
 @RestController
 @RequestMapping("/api/v1/messages")
 @RequiredArgsConstructor
@@ -28,6 +40,16 @@ public class MessageController {
         );
     }
 
+    @PostMapping("/batch-send")
+    public ResponseEntity<?> sendMessageToChats(@RequestBody BatchSendMessageRequest batchSendMessageRequest) throws Exception {
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Messages sent successfully",
+                        messageService.sendMessageToChats(batchSendMessageRequest)
+                )
+        );
+    }
+
     @PostMapping("/video-call")
     public ResponseEntity<?> sendVideoCallSystemMessage(@RequestBody SendMessageRequest sendMessageRequest,
                                                         @RequestParam SystemMessageAction action) throws Exception {
@@ -59,4 +81,39 @@ public class MessageController {
                 )
         );
     }
+
+    // Text and GIF messages over the already authenticated STOMP session, media uploads stay on REST
+    @MessageMapping("/chat/{chatId}/send")
+    @SendToUser(destinations = WebSocketDestination.USER_RECEIPT_QUEUE, broadcast = false)
+    public MessageStatusResponse sendMessageOverSocket(@DestinationVariable String chatId,
+                                                       @Payload SendMessageRequest sendMessageRequest,
+                                                       Principal principal) throws Exception {
+        // Sessions without a handshake user have no security context to send as
+        if (principal == null) {
+            throw new AuthenticationException("Sending over the socket requires an authenticated session");
+        }
+        if (!chatId.equals(sendMessageRequest.getChatId())) {
+            throw new IllegalArgumentException("Chat id does not match the destination");
+        }
+
+        MessageResponse messageResponse = messageService.sendMessage(sendMessageRequest, null);
+        return MessageStatusResponse.builder()
+                .id(messageResponse.getId())
+                .chatId(messageResponse.getChatId())
+                .seq(messageResponse.getSeq())
+                .clientMessageId(sendMessageRequest.getClientMessageId())
+                .build();
+    }
+
+    // The REST exception handler doesn't see STOMP frames, failures go back as receipts too
+    @MessageExceptionHandler
+    @SendToUser(destinations = WebSocketDestination.USER_RECEIPT_QUEUE, broadcast = false)
+    public MessageStatusResponse handleSendOverSocketFailure(Exception exception,
+                                                             @Payload SendMessageRequest sendMessageRequest) {
+        return MessageStatusResponse.builder()
+                .chatId(sendMessageRequest.getChatId())
+                .clientMessageId(sendMessageRequest.getClientMessageId())
+                .error(exception.getMessage())
+                .build();
+    }
 }
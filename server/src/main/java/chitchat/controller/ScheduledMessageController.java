@@ -0,0 +1,57 @@
+package chitchat.controller;
+
+import chitchat.dto.request.message.ScheduleMessageRequest;
+import chitchat.dto.response.ApiResponse;
+import chitchat.service.interfaces.ScheduledMessageService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/scheduled-messages")
+@RequiredArgsConstructor
+public class ScheduledMessageController {
+
+    private final ScheduledMessageService scheduledMessageService;
+
+    @PostMapping
+    public ResponseEntity<?> scheduleMessage(@RequestBody ScheduleMessageRequest scheduleMessageRequest) {
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Message scheduled successfully",
+                        scheduledMessageService.scheduleMessage(scheduleMessageRequest)
+                )
+        );
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getMyScheduledMessages(@RequestParam(required = false) String chatId) {
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Scheduled messages retrieved successfully",
+                        scheduledMessageService.getMyScheduledMessages(chatId)
+                )
+        );
+    }
+
+    @PutMapping("/{scheduledMessageId}")
+    public ResponseEntity<?> updateScheduledMessage(@PathVariable String scheduledMessageId,
+                                                    @RequestBody ScheduleMessageRequest scheduleMessageRequest) {
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Scheduled message updated successfully",
+                        scheduledMessageService.updateScheduledMessage(scheduledMessageId, scheduleMessageRequest)
+                )
+        );
+    }
+
+    @DeleteMapping("/{scheduledMessageId}")
+    public ResponseEntity<?> cancelScheduledMessage(@PathVariable String scheduledMessageId) {
+        scheduledMessageService.cancelScheduledMessage(scheduledMessageId);
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Scheduled message cancelled successfully"
+                )
+        );
+    }
+}
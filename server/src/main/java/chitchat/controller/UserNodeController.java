@@ -1,6 +1,7 @@
 package chitchat.controller;
 
 import chitchat.dto.response.ApiResponse;
+import chitchat.service.interfaces.SuggestionService;
 import chitchat.service.interfaces.UserNodeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 public class UserNodeController {
 
     private final UserNodeService userNodeService;
+    private final SuggestionService suggestionService;
 
     @GetMapping("/all")
     public ResponseEntity<?> getAllUsers(@RequestParam(defaultValue = "1") int pageNumber,
@@ -46,6 +48,17 @@ public class UserNodeController {
         );
     }
 
+    // The whole set at once, clients filter group chat events from users they blocked with it
+    @GetMapping("/blocked/ids")
+    public ResponseEntity<?> getBlockedUserIds() {
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Blocked user ids retrieved successfully",
+                        userNodeService.getBlockedUserIds()
+                )
+        );
+    }
+
     @GetMapping("/friend-requests/incoming")
     public ResponseEntity<?> getIncomingFriendRequests(@RequestParam(defaultValue = "1") int pageNumber,
                                                        @RequestParam(defaultValue = "10") int pageSize) {
@@ -157,11 +170,22 @@ public class UserNodeController {
                                          @RequestParam(defaultValue = "1") int pageNumber,
                                          @RequestParam(defaultValue = "10") int pageSize,
                                          @RequestParam(defaultValue = "fullName") String sortBy,
-                                         @RequestParam(defaultValue = "asc") String sortDirection) {
+                                         @RequestParam(defaultValue = "asc") String sortDirection,
+                                         @RequestParam(defaultValue = "false") boolean includeTotal) {
         return ResponseEntity.ok(
                 new ApiResponse<>(200,
                         "Users searched successfully",
-                        userNodeService.searchUsers(query, pageNumber, pageSize, sortBy, sortDirection)
+                        userNodeService.searchUsers(query, pageNumber, pageSize, sortBy, sortDirection, includeTotal)
+                )
+        );
+    }
+
+    @GetMapping("/suggestions")
+    public ResponseEntity<?> getSuggestions(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(
+                new ApiResponse<>(200,
+                        "Suggestions retrieved successfully",
+                        suggestionService.getMySuggestions(limit)
                 )
         );
     }
@@ -0,0 +1,14 @@
+package chitchat.dto.request.admin;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportFriendshipRequest {
+    // Username or email of each side
+    private String user;
+    private String friend;
+}
@@ -0,0 +1,17 @@
+package chitchat.dto.request.admin;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportUserRequest {
+    private String username;
+    private String email;
+    // Optional, accounts imported without one have to go through password reset
+    private String password;
+    private String fullName;
+    private String bio;
+}
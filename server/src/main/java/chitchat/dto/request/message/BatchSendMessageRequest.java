@@ -0,0 +1,16 @@
+package chitchat.dto.request.message;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class BatchSendMessageRequest {
+    private List<String> chatIds;
+    private String content;
+    private String mediaUrl;
+    // Forwarding copies the content and media of this message instead of content and mediaUrl
+    private String forwardMessageId;
+}
@@ -0,0 +1,16 @@
+package chitchat.dto.request.message;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+public class ScheduleMessageRequest {
+    private String chatId;
+    private String content;
+    private String mediaUrl;
+    private String replyToMessageId;
+    private Instant dueAt;
+}
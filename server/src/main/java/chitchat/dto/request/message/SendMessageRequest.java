@@ -11,4 +11,6 @@ public class SendMessageRequest {
     private String content;
     private String mediaUrl;
     private String replyToMessageId;
+    // Generated by the client once per message and reused on retries
+    private String clientMessageId;
 }
@@ -1,5 +1,6 @@
 package chitchat.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Builder;
 import lombok.Getter;
 
@@ -11,4 +12,10 @@ public class PageResponse<T> {
     private long totalElements;
     private int totalPages;
     private T content;
+    // Set by endpoints that skip the total count, totalElements is then only a lower bound
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean hasMore;
+    // Set when counting stopped at a cap, totalElements is then the cap and the real total is larger
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalCapped;
 }
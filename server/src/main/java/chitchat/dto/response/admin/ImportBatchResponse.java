@@ -0,0 +1,23 @@
+package chitchat.dto.response.admin;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ImportBatchResponse {
+    private int batchNumber;
+    private int processed;
+    private int imported;
+    private int failed;
+    private long totalProcessed;
+    private long totalImported;
+    private long totalFailed;
+    private List<ImportErrorResponse> errors;
+    // Set on the last line of the stream only
+    private Boolean completed;
+}
@@ -0,0 +1,11 @@
+package chitchat.dto.response.admin;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ImportErrorResponse {
+    private long line;
+    private String message;
+}
@@ -1,12 +1,14 @@
 package chitchat.dto.response.chat;
 
+import chitchat.model.enumeration.RelationshipStatus;
 import lombok.Builder;
 import lombok.Getter;
 
 @Getter
-@Builder
+@Builder(toBuilder = true)
 public class ChatParticipantInfoResponse {
     private String id;
     private String fullName;
     private String profileImageUrl;
+    private RelationshipStatus relationshipStatus;
 }
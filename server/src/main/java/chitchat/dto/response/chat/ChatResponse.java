@@ -10,7 +10,7 @@ import java.util.List;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 //@JsonInclude(JsonInclude.Include.NON_NULL)
 public class ChatResponse {
     private String id;
@@ -25,6 +25,7 @@ public class ChatResponse {
     private String lastMessageMediaUrl;
     private Instant lastMessageTime;
     private Boolean isLastMessageDeleted;
+    private Long messageExpirySeconds;
     private List<String> admins;
     private Instant createdAt;
     private Instant updatedAt;
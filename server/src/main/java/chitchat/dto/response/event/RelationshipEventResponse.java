@@ -0,0 +1,17 @@
+package chitchat.dto.response.event;
+
+import chitchat.dto.response.user.UserSearchResponse;
+import chitchat.model.enumeration.NotificationType;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+public class RelationshipEventResponse {
+    private NotificationType type;
+    // The user who caused the change, with the relationship status as the recipient now sees it
+    private UserSearchResponse user;
+    private Instant createdAt;
+}
@@ -0,0 +1,26 @@
+package chitchat.dto.response.message;
+
+import chitchat.model.enumeration.MessageType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MessageExportResponse {
+    private String id;
+    private Long seq;
+    private String senderId;
+    private String senderName;
+    private MessageType messageType;
+    private String content;
+    // External URL, or the path of the file inside a ZIP export
+    private String mediaUrl;
+    private String replyToMessageId;
+    private Boolean isEdited;
+    private Boolean isDeleted;
+    private Instant createdAt;
+}
@@ -19,6 +19,8 @@ public class MessageResponse {
     private String senderId;
     private String senderName;
     private String chatId;
+    private Long seq;
+    private String clientMessageId;
     private MessageType messageType;
     private String mediaUrl;
     private String replyToMessageId;
@@ -30,6 +32,9 @@ public class MessageResponse {
     private Boolean isReplyMessageDeleted;
     private Boolean isEdited;
     private Boolean isDeleted;
+    // Broadcast before the message was stored, a MESSAGE_CONFIRMED or MESSAGE_FAILED event follows
+    private Boolean isPending;
+    private Instant expiresAt;
     private Instant createdAt;
     private Instant updatedAt;
     private List<MessageReadInfoResponse> readInfo;
@@ -0,0 +1,16 @@
+package chitchat.dto.response.message;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MessageStatusResponse {
+    private String id;
+    private String chatId;
+    private Long seq;
+    private String clientMessageId;
+    private String error;
+}
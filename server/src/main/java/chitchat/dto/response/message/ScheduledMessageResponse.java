@@ -0,0 +1,25 @@
+package chitchat.dto.response.message;
+
+import chitchat.model.enumeration.ScheduledMessageStatus;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@Builder
+public class ScheduledMessageResponse {
+    private String id;
+    private String chatId;
+    private String content;
+    private String mediaUrl;
+    private String replyToMessageId;
+    private Instant dueAt;
+    private ScheduledMessageStatus status;
+    private String sentMessageId;
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -12,4 +12,5 @@ public class UserProfileResponse {
     private String profileImageUrl;
     private String bio;
     private RelationshipStatus status;
+    private Integer mutualFriendCount;
 }
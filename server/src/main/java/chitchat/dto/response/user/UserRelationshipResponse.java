@@ -1,17 +1,21 @@
 package chitchat.dto.response.user;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 
 import java.io.Serializable;
 import java.util.Set;
 
 @Getter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class UserRelationshipResponse implements Serializable {
     private Set<String> friends;
     private Set<String> sentRequests;
     private Set<String> receivedRequests;
     private Set<String> blocked;
     private Set<String> blockedBy;
-}
\ No newline at end of file
+}
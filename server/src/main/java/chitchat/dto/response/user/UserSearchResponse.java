@@ -15,4 +15,5 @@ public class UserSearchResponse {
     private String fullName;
     private String profileImageUrl;
     private RelationshipStatus relationshipStatus;
+    private Integer mutualFriendCount;
 }
@@ -0,0 +1,19 @@
+package chitchat.dto.response.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserSuggestionResponse {
+    private String id;
+    private String fullName;
+    private String profileImageUrl;
+    private Integer mutualFriendCount;
+    private Integer sharedGroupCount;
+    private Integer score;
+}
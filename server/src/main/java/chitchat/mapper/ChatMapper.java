@@ -6,15 +6,18 @@ import chitchat.exception.ResourceNotFoundException;
 import chitchat.model.Chat;
 import chitchat.model.MessageReadInfo;
 import chitchat.model.User;
+import chitchat.model.enumeration.RelationshipStatus;
 import chitchat.model.security.CustomUserDetails;
 import chitchat.repository.MessageReadInfoRepository;
 import chitchat.repository.MessageRepository;
 import chitchat.repository.UserRepository;
+import chitchat.service.interfaces.UserNodeService;
 import chitchat.utils.MediaUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -23,6 +26,7 @@ public class ChatMapper {
     private final UserRepository userRepository;
     private final MessageRepository messageRepository;
     private final MessageReadInfoRepository messageReadInfoRepository;
+    private final UserNodeService userNodeService;
     private final MediaUtils mediaUtils;
 
     public ChatResponse toChatResponse(CustomUserDetails currentUser, Chat chat) {
@@ -49,12 +53,17 @@ public class ChatMapper {
                 )
                 .lastMessageTime(chat.getLastMessageTime())
                 .isLastMessageDeleted(chat.getIsLastMessageDeleted())
+                .messageExpirySeconds(chat.getMessageExpirySeconds())
                 .admins(chat.getAdmins())
                 .createdAt(chat.getCreatedAt())
                 .updatedAt(chat.getUpdatedAt())
                 .createdBy(chat.getCreatedBy())
                 .build();
 
+        // Resolve all participant relationships at once instead of one query per participant, private chats included
+        Map<String, RelationshipStatus> relationshipStatuses = userNodeService
+                .getRelationshipStatuses(currentUser.getUser().getId(), chat.getParticipants());
+
         // If it's a one-on-one chat, extract other user info
         if (!chat.getIsGroupChat()) {
             String otherUserId = chat.getParticipants().stream()
@@ -68,6 +77,8 @@ public class ChatMapper {
                 chatResponse.setName(otherUser.getFullName());
                 chatResponse.setChatImageUrl(mediaUtils.resolveMediaUrl(otherUser.getProfileImageUrl()));
 
+                RelationshipStatus otherUserStatus = relationshipStatuses.get(otherUserId);
+
                 List<ChatParticipantInfoResponse> participantDetails = List.of(
                         ChatParticipantInfoResponse.builder()
                                 .id(currentUser.getUser().getId())
@@ -78,6 +89,7 @@ public class ChatMapper {
                                 .id(otherUser.getId())
                                 .fullName(otherUser.getFullName())
                                 .profileImageUrl(mediaUtils.resolveMediaUrl(otherUser.getProfileImageUrl()))
+                                .relationshipStatus(otherUserStatus)
                                 .build()
                 );
                 chatResponse.setParticipantsInfo(participantDetails);
@@ -93,6 +105,7 @@ public class ChatMapper {
                                     .id(user.getId())
                                     .fullName(user.getFullName())
                                     .profileImageUrl(mediaUtils.resolveMediaUrl(user.getProfileImageUrl()))
+                                    .relationshipStatus(relationshipStatuses.get(user.getId()))
                                     .build())
                     .toList();
 
@@ -103,6 +116,21 @@ public class ChatMapper {
         return chatResponse;
     }
 
+    /**
+    Copy of a chat response for the other participants of the chat.
+    Relationship statuses are the actor's own view of each member, recipients load theirs with the chat.
+    **/
+    public ChatResponse toBroadcastChatResponse(ChatResponse chatResponse) {
+        if (chatResponse.getParticipantsInfo() == null) {
+            return chatResponse;
+        }
+        return chatResponse.toBuilder()
+                .participantsInfo(chatResponse.getParticipantsInfo().stream()
+                        .map(participant -> participant.toBuilder().relationshipStatus(null).build())
+                        .toList())
+                .build();
+    }
+
     public ChatResponse toOverviewChatResponse(CustomUserDetails currentUser, Chat chat) {
         ChatResponse chatResponse = ChatResponse.builder()
                 .id(chat.getId())
@@ -124,6 +152,7 @@ public class ChatMapper {
                 )
                 .lastMessageTime(chat.getLastMessageTime())
                 .isLastMessageDeleted(chat.getIsLastMessageDeleted())
+                .messageExpirySeconds(chat.getMessageExpirySeconds())
                 .createdAt(chat.getCreatedAt())
                 .updatedAt(chat.getUpdatedAt())
                 .build();
@@ -10,6 +10,7 @@ import chitchat.utils.MediaUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -34,9 +35,11 @@ public class MessageMapper {
         return MessageResponse.builder()
                 .id(message.getId())
                 .chatId(message.getChatId())
+                .seq(message.getSeq())
+                .clientMessageId(message.getClientMessageId())
                 // Only include content if the message is not deleted
                 .content(
-                        Boolean.TRUE.equals(message.getIsDeleted())
+                        isDeleted(message)
                                 ? null
                                 : message.getContent()
                 )
@@ -61,7 +64,8 @@ public class MessageMapper {
                 .isReplyMessageEdited(message.getIsReplyMessageEdited())
                 .isReplyMessageDeleted(message.getIsReplyMessageDeleted())
                 .isEdited(message.getIsEdited())
-                .isDeleted(message.getIsDeleted())
+                .isDeleted(isDeleted(message))
+                .expiresAt(message.getExpiresAt())
                 .createdAt(message.getCreatedAt())
                 .updatedAt(message.getUpdatedAt())
                 .build();
@@ -99,7 +103,7 @@ public class MessageMapper {
                             .id(message.getId())
                             .chatId(message.getChatId())
                             .content(
-                                    Boolean.TRUE.equals(message.getIsDeleted())
+                                    isDeleted(message)
                                             ? null
                                             : message.getContent()
                             )
@@ -122,7 +126,8 @@ public class MessageMapper {
                             .isReplyMessageEdited(message.getIsReplyMessageEdited())
                             .isReplyMessageDeleted(message.getIsReplyMessageDeleted())
                             .isEdited(message.getIsEdited())
-                            .isDeleted(message.getIsDeleted())
+                            .isDeleted(isDeleted(message))
+                            .expiresAt(message.getExpiresAt())
                             .createdAt(message.getCreatedAt())
                             .updatedAt(message.getUpdatedAt())
                             .readInfo(readInfoMap.getOrDefault(message.getId(), List.of()))
@@ -130,4 +135,10 @@ public class MessageMapper {
                 })
                 .toList();
     }
-}
+
+    // The TTL monitor removes expired messages about once a minute, until then they read as deleted
+    private boolean isDeleted(Message message) {
+        return Boolean.TRUE.equals(message.getIsDeleted())
+                || (message.getExpiresAt() != null && message.getExpiresAt().isBefore(Instant.now()));
+    }
+}
\ No newline at end of file
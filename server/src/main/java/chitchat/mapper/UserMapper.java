@@ -31,13 +31,14 @@ public class UserMapper {
                 .build();
     }
 
-    public UserProfileResponse toUserProfileResponse(User user, RelationshipStatus status) {
+    public UserProfileResponse toUserProfileResponse(User user, RelationshipStatus status, Integer mutualFriendCount) {
         return UserProfileResponse.builder()
                 .id(user.getId())
                 .fullName(user.getFullName())
                 .profileImageUrl(mediaUtils.resolveMediaUrl(user.getProfileImageUrl()))
                 .bio(user.getBio())
                 .status(status)
+                .mutualFriendCount(mutualFriendCount)
                 .build();
     }
 
@@ -42,8 +42,14 @@ public class Chat extends AbstractAuditingDocument {
 
     private Boolean isLastMessageDeleted;
 
+    // Sequence number of the last message, so a late update can't replace a newer last message
+    private Long lastMessageSeq;
+
     private List<String> participants;
 
+    // Lifetime of new messages in seconds, null when messages don't disappear
+    private Long messageExpirySeconds;
+
     private List<String> admins;
 
     @Builder.Default
@@ -6,6 +6,8 @@ import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+
 @Getter
 @Setter
 @AllArgsConstructor
@@ -23,6 +25,11 @@ public class Message extends AbstractAuditingDocument {
 
     private String chatId;
 
+    // Position in the chat assigned by MessageSequencer, absent on messages stored before sequencing existed
+    private Long seq;
+
+    private String clientMessageId;
+
     private MessageType messageType;
 
     private String mediaUrl;
@@ -46,4 +53,7 @@ public class Message extends AbstractAuditingDocument {
 
     @Builder.Default
     private Boolean isDeleted = false;
+
+    // Set when the chat has disappearing messages, the TTL index removes the message once it has passed
+    private Instant expiresAt;
 }
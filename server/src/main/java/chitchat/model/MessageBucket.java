@@ -0,0 +1,37 @@
+package chitchat.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "message_buckets")
+public class MessageBucket {
+
+    @Id
+    private String id;
+
+    private String chatId;
+
+    // Day the messages were sent, a busy day spreads over as many buckets as it needs
+    private Instant day;
+
+    // Sequence range of the messages in the bucket, the per chat directory is the index on chatId and firstSeq
+    private Long firstSeq;
+
+    private Long lastSeq;
+
+    private Integer count;
+
+    // Appended in the order the writes arrive, not necessarily by sequence number
+    @Builder.Default
+    private List<Message> messages = new ArrayList<>();
+}
@@ -0,0 +1,38 @@
+package chitchat.model;
+
+import chitchat.model.auditing.AbstractAuditingDocument;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "message_segments")
+public class MessageSegment extends AbstractAuditingDocument {
+
+    @Id
+    private String id;
+
+    private String chatId;
+
+    // Segments of a chat cover consecutive, non-overlapping sequence ranges
+    private Long firstSeq;
+
+    private Long lastSeq;
+
+    private Integer count;
+
+    private Instant firstMessageAt;
+
+    private Instant lastMessageAt;
+
+    // Gzipped newline delimited JSON in the private MinIO bucket, never rewritten once stored
+    private String objectName;
+
+    private Long sizeBytes;
+}
@@ -0,0 +1,43 @@
+package chitchat.model;
+
+import chitchat.model.auditing.AbstractAuditingDocument;
+import chitchat.model.enumeration.ScheduledMessageStatus;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document(collection = "scheduled_messages")
+public class ScheduledMessage extends AbstractAuditingDocument {
+
+    @Id
+    private String id;
+
+    private String chatId;
+
+    private String senderId;
+
+    private String content;
+
+    private String mediaUrl;
+
+    private String replyToMessageId;
+
+    private Instant dueAt;
+
+    @Builder.Default
+    private ScheduledMessageStatus status = ScheduledMessageStatus.SCHEDULED;
+
+    // Set when an instance claims the send, a claim that is never completed is retried after it goes stale
+    private Instant claimedAt;
+
+    private String sentMessageId;
+
+    private String error;
+}
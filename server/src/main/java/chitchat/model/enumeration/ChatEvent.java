@@ -4,8 +4,11 @@ public enum ChatEvent {
     NEW_MESSAGE,
     MESSAGE_EDITED,
     MESSAGE_DELETED,
+    MESSAGE_CONFIRMED,
+    MESSAGE_FAILED,
     CHAT_READ,
     NEW_CHAT,
     CHAT_UPDATED,
     USER_TYPING,
+    RELATIONSHIP_UPDATED,
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package chitchat.model.enumeration;
+
+public enum ExportFormat {
+    NDJSON,
+    ZIP
+}
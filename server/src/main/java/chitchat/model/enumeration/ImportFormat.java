@@ -0,0 +1,6 @@
+package chitchat.model.enumeration;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV
+}
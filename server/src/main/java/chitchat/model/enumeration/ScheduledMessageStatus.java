@@ -0,0 +1,9 @@
+package chitchat.model.enumeration;
+
+public enum ScheduledMessageStatus {
+    SCHEDULED,
+    SENDING,
+    SENT,
+    CANCELLED,
+    FAILED
+}
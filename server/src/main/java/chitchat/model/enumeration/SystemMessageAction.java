@@ -5,6 +5,7 @@ public enum SystemMessageAction {
     CREATE_GROUP_CHAT,
     UPDATE_GROUP_CHAT_NAME,
     UPDATE_GROUP_CHAT_IMAGE,
+    UPDATE_MESSAGE_EXPIRY,
     VIDEO_CALL_START,
     VIDEO_CALL_JOIN,
     VIDEO_CALL_LEAVE,
@@ -9,6 +9,7 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,6 +28,12 @@ public interface ChatRepository extends MongoRepository<Chat, String> {
     """)
     Optional<Chat> findPrivateChatByParticipants(List<String> participants);
 
+    @Query(value = "{ 'isGroupChat': true, 'isDeleted': { $ne: true }, 'participants': ?0 }", fields = "{ 'participants': 1 }")
+    List<Chat> findGroupChatParticipantsByParticipantId(String participantId);
+
+    @Query(value = "{ '_id': { $in: ?0 }, 'participants': ?1 }")
+    List<Chat> findAllByIdInAndParticipantId(Collection<String> chatIds, String participantId);
+
     @Query(value = "{ 'participants': ?0 }")
     Page<Chat> findByParticipantId(String participantId, Pageable pageable);
 
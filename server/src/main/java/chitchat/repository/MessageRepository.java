@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MessageRepository extends MongoRepository<Message, String> {
@@ -19,6 +20,15 @@ public interface MessageRepository extends MongoRepository<Message, String> {
     @Query("{ 'chatId' : ?0, 'createdAt' : { $lt: ?1 } }")
     Page<Message> findByChatIdAndCreatedAtBefore(String chatId, Instant createdAt, Pageable pageable);
 
+    // Unsequenced messages predate every sequenced one, so they follow once the lower sequence numbers run out
+    @Query("{ 'chatId' : ?0, $or: [ { 'seq' : { $lt: ?1 } }, { 'seq' : null } ] }")
+    Page<Message> findByChatIdAndSeqBefore(String chatId, long seq, Pageable pageable);
+
+    @Query("{ 'chatId' : ?0, 'seq' : null, 'createdAt' : { $lt: ?1 } }")
+    Page<Message> findUnsequencedByChatIdAndCreatedAtBefore(String chatId, Instant createdAt, Pageable pageable);
+
+    Optional<Message> findFirstByChatIdAndSeqNotNullOrderBySeqDesc(String chatId);
+
     @Query(value = "{ 'chatId': ?0, 'senderId': { $ne: ?1 } }", count = true)
     long countByChatIdExcludingUserId(String chatId, String userId);
 
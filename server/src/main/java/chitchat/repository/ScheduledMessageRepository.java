@@ -0,0 +1,18 @@
+package chitchat.repository;
+
+import chitchat.model.ScheduledMessage;
+import chitchat.model.enumeration.ScheduledMessageStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScheduledMessageRepository extends MongoRepository<ScheduledMessage, String> {
+    @Query(value = "{ 'senderId': ?0, 'status': ?1 }", sort = "{ 'dueAt': 1 }")
+    List<ScheduledMessage> findBySenderIdAndStatus(String senderId, ScheduledMessageStatus status);
+
+    @Query(value = "{ 'senderId': ?0, 'status': ?1 }", count = true)
+    long countBySenderIdAndStatus(String senderId, ScheduledMessageStatus status);
+}
@@ -2,6 +2,7 @@ package chitchat.repository;
 
 import chitchat.dto.response.user.UserRelationshipResponse;
 import chitchat.dto.response.user.UserSearchResponse;
+import chitchat.dto.response.user.UserSuggestionResponse;
 import chitchat.model.UserNode;
 import chitchat.model.enumeration.RelationshipStatus;
 import org.springframework.data.neo4j.repository.Neo4jRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.neo4j.repository.query.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -69,6 +71,7 @@ public interface UserNodeRepository extends Neo4jRepository<UserNode, String> {
     @Query("MATCH (u:User {userId: $userId})-[:BLOCKED]->(blocked:User) RETURN count(blocked)")
     long countBlockedUsers(@Param("userId") String userId);
 
+    // Write queries return whether they changed anything, no-ops must not notify or invalidate caches
     // Send a friend request
     @Query("""
         MATCH (a:User {userId: $currentUserId})
@@ -76,34 +79,38 @@ public interface UserNodeRepository extends Neo4jRepository<UserNode, String> {
         WHERE NOT (a)-[:FRIEND|BLOCKED]-(b)
           AND NOT (a)-[:PENDING_REQUEST]->(b)
           AND NOT (b)-[:PENDING_REQUEST]->(a)
-        MERGE (a)-[:PENDING_REQUEST]->(b)
+        MERGE (a)-[r:PENDING_REQUEST]->(b)
+        RETURN count(r) > 0
     """)
-    void sendFriendRequest(@Param("currentUserId") String currentUserId,
+    boolean sendFriendRequest(@Param("currentUserId") String currentUserId,
                            @Param("targetUserId") String targetUserId);
 
     // Cancel a sent friend request
     @Query("""
         MATCH (a:User {userId: $currentUserId})-[r:PENDING_REQUEST]->(b:User {userId: $targetUserId})
         DELETE r
+        RETURN count(*) > 0
     """)
-    void cancelFriendRequest(@Param("currentUserId") String currentUserId,
+    boolean cancelFriendRequest(@Param("currentUserId") String currentUserId,
                              @Param("targetUserId") String targetUserId);
 
     // Accept a friend request
     @Query("""
         MATCH (a:User {userId: $targetUserId})-[r:PENDING_REQUEST]->(b:User {userId: $currentUserId})
         DELETE r
-        MERGE (a)-[:FRIEND]-(b)
+        MERGE (a)-[f:FRIEND]-(b)
+        RETURN count(f) > 0
     """)
-    void acceptFriendRequest(@Param("currentUserId") String currentUserId,
+    boolean acceptFriendRequest(@Param("currentUserId") String currentUserId,
                              @Param("targetUserId") String targetUserId);
 
     // Reject a friend request
     @Query("""
         MATCH (a:User {userId: $targetUserId})-[r:PENDING_REQUEST]->(b:User {userId: $currentUserId})
         DELETE r
+        RETURN count(*) > 0
     """)
-    void rejectFriendRequest(@Param("currentUserId") String currentUserId,
+    boolean rejectFriendRequest(@Param("currentUserId") String currentUserId,
                              @Param("targetUserId") String targetUserId);
 
     // Incoming friend requests with pagination
@@ -151,8 +158,9 @@ public interface UserNodeRepository extends Neo4jRepository<UserNode, String> {
     @Query("""
         MATCH (a:User {userId: $currentUserId})-[r:FRIEND]-(b:User {userId: $targetUserId})
         DELETE r
+        RETURN count(*) > 0
     """)
-    void removeFriend(@Param("currentUserId") String currentUserId,
+    boolean removeFriend(@Param("currentUserId") String currentUserId,
                       @Param("targetUserId") String targetUserId);
 
     @Query("""
@@ -162,23 +170,26 @@ public interface UserNodeRepository extends Neo4jRepository<UserNode, String> {
         OPTIONAL MATCH (a)-[p1:PENDING_REQUEST]->(b)
         OPTIONAL MATCH (b)-[p2:PENDING_REQUEST]->(a)
         DELETE f, p1, p2
-        MERGE (a)-[:BLOCKED]->(b)
+        MERGE (a)-[r:BLOCKED]->(b)
+        RETURN count(r) > 0
     """)
-    void blockUser(@Param("currentUserId") String currentUserId,
+    boolean blockUser(@Param("currentUserId") String currentUserId,
                    @Param("targetUserId") String targetUserId);
 
     @Query("""
         MATCH (a:User {userId: $currentUserId})-[r:BLOCKED]->(b:User {userId: $targetUserId})
         DELETE r
+        RETURN count(*) > 0
     """)
-    void unblockUser(@Param("currentUserId") String currentUserId,
+    boolean unblockUser(@Param("currentUserId") String currentUserId,
                      @Param("targetUserId") String targetUserId);
 
     @Query("""
-        MATCH (u:User {userId: $userId})-[:BLOCKED]->(blocked:User)
-        WITH collect(blocked.userId) AS blockedByMe, u
-        OPTIONAL MATCH (u)<-[:BLOCKED]-(blocked:User)
-        WITH blockedByMe, collect(blocked.userId) AS blockedMe
+        MATCH (u:User {userId: $userId})
+        OPTIONAL MATCH (u)-[:BLOCKED]->(blocked:User)
+        WITH u, collect(blocked.userId) AS blockedByMe
+        OPTIONAL MATCH (u)<-[:BLOCKED]-(blocker:User)
+        WITH blockedByMe, collect(blocker.userId) AS blockedMe
         RETURN blockedByMe + blockedMe AS allBlocked
     """)
     Set<String> getAllBlockedUserIds(String userId);
@@ -219,106 +230,120 @@ public interface UserNodeRepository extends Neo4jRepository<UserNode, String> {
     Set<String> getIncomingFriendRequestIdsIn(@Param("currentUserId") String currentUserId,
                                               @Param("targetUserIds") List<String> targetUserIds);
 
-    @Query("CREATE FULLTEXT INDEX user_search_index IF NOT EXISTS FOR (u:User) ON EACH [u.fullName]")
-    void createFullTextIndex();
-
+    // Relationship status and the blocked filter are applied from the viewer's cached
+    // relationship snapshot, so the query only touches the matched nodes
     @Query("""
-        CALL db.index.fulltext.queryNodes('user_search_index', $searchTerm + '*') YIELD node as searchUser
-        WITH searchUser
-        MATCH (currentUser:User {userId: $currentUserId})
+        CALL db.index.fulltext.queryNodes('user_search_index', $searchTerm + '*') YIELD node AS searchUser
         WHERE searchUser.userId <> $currentUserId
-          AND NOT (currentUser)-[:BLOCKED]-(searchUser)
-          AND NOT (searchUser)-[:BLOCKED]->(currentUser)
-    
-        OPTIONAL MATCH (currentUser)-[friendRel:FRIEND]-(searchUser)
-        OPTIONAL MATCH (currentUser)-[sentReq:PENDING_REQUEST]->(searchUser)
-        OPTIONAL MATCH (currentUser)<-[receivedReq:PENDING_REQUEST]-(searchUser)
-    
-        RETURN searchUser.userId as id,
-               searchUser.fullName as fullName,
-               searchUser.profileImageUrl as profileImageUrl,
-               CASE
-                 WHEN friendRel IS NOT NULL THEN 'FRIEND'
-                 WHEN sentReq IS NOT NULL THEN 'FRIEND_REQUEST_SENT'
-                 WHEN receivedReq IS NOT NULL THEN 'FRIEND_REQUEST_RECEIVED'
-                 ELSE 'NONE'
-               END as relationshipStatus
+          AND NOT searchUser.userId IN $excludedUserIds
+        RETURN searchUser.userId AS id,
+               searchUser.fullName AS fullName,
+               searchUser.profileImageUrl AS profileImageUrl
         ORDER BY searchUser.fullName
         SKIP $skip
         LIMIT $limit
     """)
-    List<UserSearchResponse> searchUsersWithRelationshipsFullText(
+    List<UserSearchResponse> searchUsersFullText(
             @Param("currentUserId") String currentUserId,
             @Param("searchTerm") String searchTerm,
+            @Param("excludedUserIds") Collection<String> excludedUserIds,
             @Param("skip") int skip,
             @Param("limit") int limit
     );
 
-    // Count search results for pagination
+    // Count search results, only run when the caller asks for an exact total
     @Query("""
-        CALL db.index.fulltext.queryNodes('user_search_index', $searchTerm + '*') YIELD node as searchUser
-        WITH searchUser
-        MATCH (currentUser:User {userId: $currentUserId})
+        CALL db.index.fulltext.queryNodes('user_search_index', $searchTerm + '*') YIELD node AS searchUser
         WHERE searchUser.userId <> $currentUserId
-          AND NOT (currentUser)-[:BLOCKED]-(searchUser)
-          AND NOT (searchUser)-[:BLOCKED]->(currentUser)
+          AND NOT searchUser.userId IN $excludedUserIds
         RETURN count(searchUser)
     """)
     long countSearchResultsFullText(
             @Param("currentUserId") String currentUserId,
-            @Param("searchTerm") String searchTerm
+            @Param("searchTerm") String searchTerm,
+            @Param("excludedUserIds") Collection<String> excludedUserIds
     );
 
-    @Query("SHOW INDEXES YIELD name WHERE name = 'user_search_index' RETURN count(*) > 0 as exists")
-    boolean fullTextIndexExists();
-
     // Fallback regex search for when full-text search is not available
     @Query("""
-        MATCH (currentUser:User {userId: $currentUserId})
         MATCH (searchUser:User)
         WHERE searchUser.fullName =~ ('(?i).*' + $searchTerm + '.*')
           AND searchUser.userId <> $currentUserId
-          AND NOT (currentUser)-[:BLOCKED]-(searchUser)
-          AND NOT (searchUser)-[:BLOCKED]->(currentUser)
-    
-        OPTIONAL MATCH (currentUser)-[friendRel:FRIEND]-(searchUser)
-        OPTIONAL MATCH (currentUser)-[sentReq:PENDING_REQUEST]->(searchUser)
-        OPTIONAL MATCH (currentUser)<-[receivedReq:PENDING_REQUEST]-(searchUser)
-    
-        RETURN searchUser.userId as userId,
-               searchUser.fullName as fullName,
-               searchUser.profileImageUrl as profileImageUrl,
-               CASE
-                 WHEN friendRel IS NOT NULL THEN 'FRIEND'
-                 WHEN sentReq IS NOT NULL THEN 'FRIEND_REQUEST_SENT'
-                 WHEN receivedReq IS NOT NULL THEN 'FRIEND_REQUEST_RECEIVED'
-                 ELSE 'NONE'
-               END as relationshipStatus
+          AND NOT searchUser.userId IN $excludedUserIds
+        RETURN searchUser.userId AS id,
+               searchUser.fullName AS fullName,
+               searchUser.profileImageUrl AS profileImageUrl
         ORDER BY searchUser.fullName
         SKIP $skip
         LIMIT $limit
     """)
-    List<UserSearchResponse> searchUsersWithRelationshipsRegex(
+    List<UserSearchResponse> searchUsersRegex(
             @Param("currentUserId") String currentUserId,
             @Param("searchTerm") String searchTerm,
+            @Param("excludedUserIds") Collection<String> excludedUserIds,
             @Param("skip") int skip,
             @Param("limit") int limit
     );
 
     @Query("""
-        MATCH (currentUser:User {userId: $currentUserId})
         MATCH (searchUser:User)
         WHERE searchUser.fullName =~ ('(?i).*' + $searchTerm + '.*')
           AND searchUser.userId <> $currentUserId
-          AND NOT (currentUser)-[:BLOCKED]-(searchUser)
-          AND NOT (searchUser)-[:BLOCKED]->(currentUser)
+          AND NOT searchUser.userId IN $excludedUserIds
         RETURN count(searchUser)
     """)
     long countSearchResultsRegex(
             @Param("currentUserId") String currentUserId,
-            @Param("searchTerm") String searchTerm
+            @Param("searchTerm") String searchTerm,
+            @Param("excludedUserIds") Collection<String> excludedUserIds
     );
 
+    // Resolve the relationship of one user against many targets in a single round trip
+    @Query("""
+        MATCH (a:User {userId: $currentUserId})
+        UNWIND $targetUserIds AS targetUserId
+        MATCH (b:User {userId: targetUserId})
+        RETURN b.userId AS id,
+               CASE
+                 WHEN EXISTS { (a)-[:BLOCKED]->(b) } THEN 'BLOCKED'
+                 WHEN EXISTS { (a)<-[:BLOCKED]-(b) } THEN 'BLOCKED_BY'
+                 WHEN EXISTS { (a)-[:FRIEND]-(b) } THEN 'FRIEND'
+                 WHEN EXISTS { (a)-[:PENDING_REQUEST]->(b) } THEN 'FRIEND_REQUEST_SENT'
+                 WHEN EXISTS { (a)<-[:PENDING_REQUEST]-(b) } THEN 'FRIEND_REQUEST_RECEIVED'
+                 ELSE 'NONE'
+               END AS relationshipStatus
+    """)
+    List<UserSearchResponse> getRelationshipStatusesIn(@Param("currentUserId") String currentUserId,
+                                                       @Param("targetUserIds") List<String> targetUserIds);
+
+    @Query("""
+        MATCH (a:User {userId: $currentUserId})
+        UNWIND $targetUserIds AS targetUserId
+        MATCH (b:User {userId: targetUserId})
+        RETURN b.userId AS id,
+               COUNT { (a)-[:FRIEND]-(:User)-[:FRIEND]-(b) } AS mutualFriendCount
+    """)
+    List<UserSearchResponse> getMutualFriendCountsIn(@Param("currentUserId") String currentUserId,
+                                                     @Param("targetUserIds") List<String> targetUserIds);
+
+    // Friends of friends ranked by how many friends they share, excluding anyone already related.
+    // Paths are aggregated per candidate first, so the exclusions run once per candidate instead of once per path
+    @Query("""
+        MATCH (me:User {userId: $userId})-[:FRIEND]-(friend:User)-[:FRIEND]-(candidate:User)
+        WHERE candidate <> me
+        WITH me, candidate, count(DISTINCT friend) AS mutualFriendCount
+        WHERE NOT EXISTS { (me)-[:FRIEND]-(candidate) }
+          AND NOT EXISTS { (me)-[:PENDING_REQUEST]-(candidate) }
+          AND NOT EXISTS { (me)-[:BLOCKED]-(candidate) }
+        ORDER BY mutualFriendCount DESC
+        LIMIT $limit
+        RETURN candidate.userId AS id,
+               candidate.fullName AS fullName,
+               candidate.profileImageUrl AS profileImageUrl,
+               mutualFriendCount
+    """)
+    List<UserSuggestionResponse> getFriendOfFriendCandidates(@Param("userId") String userId, @Param("limit") int limit);
+
     @Query("""
         MATCH (a:User {userId: $currentUserId})
         MATCH (b:User {userId: $targetUserId})
@@ -340,19 +365,36 @@ public interface UserNodeRepository extends Neo4jRepository<UserNode, String> {
     RelationshipStatus getRelationshipBetween(@Param("currentUserId") String currentUserId,
                                               @Param("targetUserId") String targetUserId);
 
+    // Each relationship type is collected in its own subquery so the row count stays
+    // linear in the number of relationships instead of their cartesian product
     @Query("""
         MATCH (u:User {userId: $userId})
-        OPTIONAL MATCH (u)-[:FRIEND]-(friends:User)
-        OPTIONAL MATCH (u)-[:PENDING_REQUEST]->(sentRequests:User)
-        OPTIONAL MATCH (u)<-[:PENDING_REQUEST]-(receivedRequests:User)
-        OPTIONAL MATCH (u)-[:BLOCKED]->(blocked:User)
-        OPTIONAL MATCH (u)<-[:BLOCKED]-(blockedBy:User)
-
-        RETURN collect(DISTINCT friends.userId) as friends,
-               collect(DISTINCT sentRequests.userId) as sentRequests,
-               collect(DISTINCT receivedRequests.userId) as receivedRequests,
-               collect(DISTINCT blocked.userId) as blocked,
-               collect(DISTINCT blockedBy.userId) as blockedBy
+        CALL {
+            WITH u
+            MATCH (u)-[:FRIEND]-(friend:User)
+            RETURN collect(DISTINCT friend.userId) AS friends
+        }
+        CALL {
+            WITH u
+            MATCH (u)-[:PENDING_REQUEST]->(sentRequest:User)
+            RETURN collect(sentRequest.userId) AS sentRequests
+        }
+        CALL {
+            WITH u
+            MATCH (u)<-[:PENDING_REQUEST]-(receivedRequest:User)
+            RETURN collect(receivedRequest.userId) AS receivedRequests
+        }
+        CALL {
+            WITH u
+            MATCH (u)-[:BLOCKED]->(blockedUser:User)
+            RETURN collect(blockedUser.userId) AS blocked
+        }
+        CALL {
+            WITH u
+            MATCH (u)<-[:BLOCKED]-(blockedByUser:User)
+            RETURN collect(blockedByUser.userId) AS blockedBy
+        }
+        RETURN friends, sentRequests, receivedRequests, blocked, blockedBy
     """)
     UserRelationshipResponse getUserRelationshipResponse(@Param("userId") String userId);
 }
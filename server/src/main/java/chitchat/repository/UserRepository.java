@@ -7,6 +7,7 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -17,6 +18,8 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByUsernameOrEmail(String identifier);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+    List<User> findAllByUsernameInOrEmailIn(Collection<String> usernames, Collection<String> emails);
+    List<User> findByIdGreaterThan(String id, Pageable pageable);
 
     @Query("""
         {
@@ -45,7 +48,4 @@ public interface UserRepository extends MongoRepository<User, String> {
     count = true)
     long countByFullNameExcludingUsers(String searchTerm, List<String> excludedUserIds);
 
-    @Query("{ '_id': { $in: ?1 }, 'fullName': { $regex: ?0, $options: 'i' } }")
-    List<User> searchByFullNameIn(String query, List<String> userIds);
-
 }
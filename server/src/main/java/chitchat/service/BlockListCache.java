@@ -0,0 +1,67 @@
+package chitchat.service;
+
+import chitchat.repository.UserNodeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+In-process copy of each user's block set in both directions (users they blocked and users who blocked them),
+so the message and typing paths can enforce blocks with a hash lookup instead of a graph query.
+Entries are dropped locally on block and unblock, the short TTL bounds how long other instances
+keep serving a set that changed elsewhere.
+**/
+@Service
+@RequiredArgsConstructor
+public class BlockListCache {
+
+    private static final Duration ENTRY_TTL = Duration.ofMinutes(1);
+    private static final int MAX_ENTRIES = 100_000;
+
+    private final UserNodeRepository userNodeRepository;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load that raced with it doesn't keep its stale result
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private record Entry(Set<String> blockedUserIds, long loadedAt) {
+    }
+
+    public boolean isBlocked(String userId, String otherUserId) {
+        return getBlockedUserIds(userId).contains(otherUserId);
+    }
+
+    public Set<String> getBlockedUserIds(String userId) {
+        Entry entry = entries.get(userId);
+        long now = System.nanoTime();
+        if (entry != null && now - entry.loadedAt() < ENTRY_TTL.toNanos()) {
+            return entry.blockedUserIds();
+        }
+
+        long generation = invalidations.get();
+        Set<String> blockedUserIds = userNodeRepository.getAllBlockedUserIds(userId);
+        Entry loaded = new Entry(blockedUserIds != null ? Set.copyOf(blockedUserIds) : Set.of(), now);
+
+        // Coarse bound, the sets are cheap to reload
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.clear();
+        }
+        entries.put(userId, loaded);
+        if (invalidations.get() != generation) {
+            entries.remove(userId, loaded);
+        }
+
+        return loaded.blockedUserIds();
+    }
+
+    public void invalidate(Collection<String> userIds) {
+        invalidations.incrementAndGet();
+        userIds.forEach(entries::remove);
+    }
+}
@@ -0,0 +1,353 @@
+package chitchat.service;
+
+import chitchat.constant.CacheConstant;
+import chitchat.model.Chat;
+import chitchat.model.Message;
+import chitchat.model.MessageSegment;
+import chitchat.service.interfaces.ChatService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+Moves cold chat history out of the hot messages collection into immutable, gzipped segments in the private MinIO bucket.
+Each segment holds messaging.archive.segment-size consecutive messages of one chat, message_segments is the per chat index.
+History pages that reach past the hot collection continue in the segments, recently read segments stay decompressed in an LRU.
+Archived messages are read only: they can no longer be edited, deleted or referenced by id outside history pages.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageArchiveService {
+
+    private static final String MESSAGES_COLLECTION = "messages";
+    private static final String SEGMENT_CONTENT_TYPE = "application/gzip";
+    // Segments searched for a message id, more than this many segments within one second of a chat is not expected
+    private static final int SEGMENTS_PER_SECOND = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final MinioService minioService;
+    private final MessageBucketStore messageBucketStore;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${messaging.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${messaging.archive.min-age-days:180}")
+    private int minAgeDays;
+
+    @Value("${messaging.archive.segment-size:1000}")
+    private int segmentSize;
+
+    @Value("${messaging.archive.cache-segments:64}")
+    private int cacheSegments;
+
+    // Segment id to its decompressed messages, in access order
+    private final Map<String, List<Message>> segmentCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Message>> eldest) {
+            return size() > cacheSegments;
+        }
+    });
+
+    // Segments are immutable, so a disappearing message must have expired before it is old enough to be archived
+    @PostConstruct
+    public void validateMinAge() {
+        if (enabled && Duration.ofDays(minAgeDays).toSeconds() <= ChatService.MAX_MESSAGE_EXPIRY_SECONDS) {
+            throw new IllegalStateException("messaging.archive.min-age-days must be longer than the maximum message expiry of "
+                    + Duration.ofSeconds(ChatService.MAX_MESSAGE_EXPIRY_SECONDS).toDays() + " days");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Scheduled(cron = "${messaging.archive.cron:0 30 3 * * *}")
+    public void archiveColdMessages() {
+        if (!enabled) {
+            return;
+        }
+        // One instance archives at a time, the lock expires if that instance dies midway
+        Boolean locked = redisTemplate.opsForValue()
+                .setIfAbsent(CacheConstant.MESSAGE_ARCHIVE_LOCK_KEY, "locked", CacheConstant.MESSAGE_ARCHIVE_LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+
+        Instant cutoff = Instant.now().minus(Duration.ofDays(minAgeDays));
+        int archivedSegments = 0;
+
+        // Only chats older than the cutoff can hold cold messages
+        Query chats = new Query(Criteria.where("createdAt").lt(cutoff));
+        chats.fields().include("_id");
+
+        try (Stream<Chat> chatStream = mongoTemplate.stream(chats, Chat.class)) {
+            for (Iterator<Chat> iterator = chatStream.iterator(); iterator.hasNext(); ) {
+                String chatId = iterator.next().getId();
+                try {
+                    archivedSegments += archiveChat(chatId, cutoff);
+                } catch (Exception e) {
+                    log.warn("Could not archive messages of chat {}: {}", chatId, e.getMessage());
+                }
+            }
+        } finally {
+            redisTemplate.delete(CacheConstant.MESSAGE_ARCHIVE_LOCK_KEY);
+        }
+
+        log.info("Message archive wrote {} segments", archivedSegments);
+    }
+
+    private int archiveChat(String chatId, Instant cutoff) throws Exception {
+        long archivedUpTo = getLastArchivedSeq(chatId);
+        // Leftovers of a run that stopped between storing a segment and removing its messages
+        deleteHotMessages(chatId, archivedUpTo);
+
+        // Messages stored before sequencing have no place in a sequence range, such chats stay in the hot collection
+        if (mongoTemplate.exists(new Query(Criteria.where("chatId").is(chatId).and("seq").is(null)), MESSAGES_COLLECTION)) {
+            return 0;
+        }
+
+        Query newestCold = new Query(Criteria.where("chatId").is(chatId).and("createdAt").lt(cutoff))
+                .with(Sort.by(Sort.Direction.DESC, "seq"))
+                .limit(1);
+        newestCold.fields().include("seq");
+        Document newestColdMessage = mongoTemplate.findOne(newestCold, Document.class, MESSAGES_COLLECTION);
+        if (newestColdMessage == null) {
+            return 0;
+        }
+        // Everything up to the newest cold message, so a segment never leaves a gap behind
+        long boundary = ((Number) newestColdMessage.get("seq")).longValue();
+        // The newest message of the chat always stays hot, history pages and the chat summary keep pointing at a stored message
+        Query newest = new Query(Criteria.where("chatId").is(chatId))
+                .with(Sort.by(Sort.Direction.DESC, "seq"))
+                .limit(1);
+        newest.fields().include("seq");
+        boundary = Math.min(boundary, ((Number) mongoTemplate.findOne(newest, Document.class, MESSAGES_COLLECTION).get("seq")).longValue() - 1);
+        if (boundary - archivedUpTo < segmentSize) {
+            return 0;
+        }
+
+        // Disappearing messages never go into a segment, one the expiry job hasn't removed yet is dropped with the range
+        Query coldMessages = new Query(Criteria.where("chatId").is(chatId).and("seq").gt(archivedUpTo).lte(boundary)
+                .and("expiresAt").is(null))
+                .with(Sort.by(Sort.Direction.ASC, "seq"));
+
+        int written = 0;
+        List<Document> segment = new ArrayList<>(segmentSize);
+        try (Stream<Document> messageStream = mongoTemplate.stream(coldMessages, Document.class, MESSAGES_COLLECTION)) {
+            for (Iterator<Document> iterator = messageStream.iterator(); iterator.hasNext(); ) {
+                segment.add(iterator.next());
+                // Only full segments are written, the remainder waits in the hot collection for the next run
+                if (segment.size() == segmentSize) {
+                    writeSegment(chatId, segment);
+                    segment.clear();
+                    written++;
+                }
+            }
+        }
+        return written;
+    }
+
+    private void writeSegment(String chatId, List<Document> messages) throws Exception {
+        Document first = messages.getFirst();
+        Document last = messages.getLast();
+        long firstSeq = ((Number) first.get("seq")).longValue();
+        long lastSeq = ((Number) last.get("seq")).longValue();
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(content), StandardCharsets.UTF_8)) {
+            for (Document message : messages) {
+                writer.write(message.toJson());
+                writer.write('\n');
+            }
+        }
+        byte[] bytes = content.toByteArray();
+
+        String objectName = "message-archive/" + chatId + "/" + firstSeq + "-" + lastSeq + ".ndjson.gz";
+        minioService.uploadToPrivateBucket(objectName, bytes, SEGMENT_CONTENT_TYPE);
+
+        // The messages are removed only once the segment is readable
+        mongoTemplate.insert(MessageSegment.builder()
+                .chatId(chatId)
+                .firstSeq(firstSeq)
+                .lastSeq(lastSeq)
+                .count(messages.size())
+                .firstMessageAt(first.getDate("createdAt") != null ? first.getDate("createdAt").toInstant() : null)
+                .lastMessageAt(last.getDate("createdAt") != null ? last.getDate("createdAt").toInstant() : null)
+                .objectName(objectName)
+                .sizeBytes((long) bytes.length)
+                .build());
+
+        deleteHotMessages(chatId, lastSeq);
+    }
+
+    private void deleteHotMessages(String chatId, long upToSeq) {
+        if (upToSeq > 0) {
+            mongoTemplate.remove(new Query(Criteria.where("chatId").is(chatId).and("seq").lte(upToSeq)), MESSAGES_COLLECTION);
+            messageBucketStore.removeUpTo(chatId, upToSeq);
+        }
+    }
+
+    // Everything up to this sequence number has left the messages collection
+    public long getLastArchivedSeq(String chatId) {
+        if (!enabled) {
+            return 0;
+        }
+        MessageSegment newest = mongoTemplate.findOne(new Query(Criteria.where("chatId").is(chatId))
+                .with(Sort.by(Sort.Direction.DESC, "firstSeq"))
+                .limit(1), MessageSegment.class);
+        return newest != null ? newest.getLastSeq() : 0;
+    }
+
+    // Up to limit archived messages of the chat with a sequence number below beforeSeq, newest first
+    public List<Message> findBefore(String chatId, long beforeSeq, int limit) {
+        if (!enabled || limit <= 0) {
+            return List.of();
+        }
+
+        List<Message> found = new ArrayList<>(limit);
+        // Consecutive full segments, a page spans at most this many of them
+        int segmentsNeeded = limit / segmentSize + 2;
+        for (MessageSegment segment : findSegments(chatId, beforeSeq, segmentsNeeded)) {
+            List<Message> messages = loadSegment(segment);
+            for (int i = messages.size() - 1; i >= 0 && found.size() < limit; i--) {
+                if (messages.get(i).getSeq() < beforeSeq) {
+                    found.add(messages.get(i));
+                }
+            }
+            if (found.size() == limit) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+    Archived messages with a sequence number below beforeSeq. Sequence numbers have gaps (expired messages, failed inserts),
+    so the stored counts of the segments are summed, only a segment straddling beforeSeq is read.
+    **/
+    public long countBefore(String chatId, long beforeSeq) {
+        if (!enabled) {
+            return 0;
+        }
+        long count = 0;
+        for (MessageSegment segment : mongoTemplate.find(new Query(Criteria.where("chatId").is(chatId).and("firstSeq").lt(beforeSeq)),
+                MessageSegment.class)) {
+            count += segment.getLastSeq() < beforeSeq
+                    ? segment.getCount()
+                    : loadSegment(segment).stream().filter(message -> message.getSeq() < beforeSeq).count();
+        }
+        return count;
+    }
+
+    /**
+    The client pages with the id of the oldest message it has, which may already be archived.
+    Message ids are ObjectIds created when the message was sent, their timestamp selects the segment whose time range
+    covers it, so an unknown id reads at most the segments sharing that second instead of the whole chat.
+    **/
+    public Optional<Message> findArchivedMessage(String chatId, String messageId) {
+        if (!enabled || !ObjectId.isValid(messageId)) {
+            return Optional.empty();
+        }
+        Instant sentAt = new ObjectId(messageId).getDate().toInstant();
+
+        // ObjectId timestamps have second precision, a message at a segment boundary may match both neighbours
+        Query query = new Query(Criteria.where("chatId").is(chatId)
+                .and("firstMessageAt").lt(sentAt.plusSeconds(1))
+                .and("lastMessageAt").gte(sentAt))
+                .with(Sort.by(Sort.Direction.DESC, "firstSeq"))
+                .limit(SEGMENTS_PER_SECOND);
+
+        for (MessageSegment segment : mongoTemplate.find(query, MessageSegment.class)) {
+            List<Message> cached = segmentCache.get(segment.getId());
+            List<Message> messages = cached != null ? cached : readSegment(segment);
+            Optional<Message> message = findById(messages, messageId);
+            if (message.isPresent()) {
+                // The next page reads from this segment, a segment without the message is not worth caching
+                if (cached == null) {
+                    segmentCache.put(segment.getId(), messages);
+                }
+                return message;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Newest first
+    private List<MessageSegment> findSegments(String chatId, long beforeSeq, int limit) {
+        return mongoTemplate.find(new Query(Criteria.where("chatId").is(chatId).and("firstSeq").lt(beforeSeq))
+                .with(Sort.by(Sort.Direction.DESC, "firstSeq"))
+                .limit(limit), MessageSegment.class);
+    }
+
+    private Optional<Message> findById(List<Message> messages, String messageId) {
+        return messages.stream().filter(message -> messageId.equals(message.getId())).findFirst();
+    }
+
+    /**
+    Passes the archived messages of the chat with afterSeq < seq <= toSeq to the consumer in sequence order.
+    Segments are read one at a time and bypass the cache, so a full export holds a single segment in memory.
+    **/
+    public void forEachArchived(String chatId, long afterSeq, long toSeq, Consumer<Message> consumer) {
+        if (!enabled) {
+            return;
+        }
+        Query query = new Query(Criteria.where("chatId").is(chatId).and("lastSeq").gt(afterSeq).and("firstSeq").lte(toSeq))
+                .with(Sort.by(Sort.Direction.ASC, "firstSeq"));
+        for (MessageSegment segment : mongoTemplate.find(query, MessageSegment.class)) {
+            for (Message message : readSegment(segment)) {
+                if (message.getSeq() > afterSeq && message.getSeq() <= toSeq) {
+                    consumer.accept(message);
+                }
+            }
+        }
+    }
+
+    // Messages of a segment ordered by sequence number
+    private List<Message> loadSegment(MessageSegment segment) {
+        List<Message> cached = segmentCache.get(segment.getId());
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Message> messages = readSegment(segment);
+        segmentCache.put(segment.getId(), messages);
+        return messages;
+    }
+
+    private List<Message> readSegment(MessageSegment segment) {
+        List<Message> messages = new ArrayList<>(segment.getCount());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(minioService.downloadFromPrivateBucket(segment.getObjectName()))),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                messages.add(mongoTemplate.getConverter().read(Message.class, Document.parse(line)));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not read message segment " + segment.getObjectName(), e);
+        }
+        return List.copyOf(messages);
+    }
+}
@@ -0,0 +1,281 @@
+package chitchat.service;
+
+import chitchat.constant.CacheConstant;
+import chitchat.model.Message;
+import chitchat.model.MessageBucket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+Optional bucketed copy of chat history: one document per chat and day holding up to messaging.buckets.size messages.
+A page of history is then a handful of bucket documents found through the (chatId, firstSeq) index, instead of
+one index entry and one document per message in a B-tree shared with every other chat.
+This is a read copy, not a replacement: the messages collection stays the system of record and the archive bounds both.
+Sending stays a single write, new messages are appended off the send path by reconcile(), a few minutes later,
+grouped per chat and day: a bucket costs one write per batch of messages rather than one per message.
+Until then the newest messages of a chat are only in the messages collection and their pages are read from there.
+Saves of a message that is already in a bucket (edits, deletes) replace its copy.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageBucketStore {
+
+    // Buckets fetched beyond what a full page needs, covers neighbours whose ranges overlap
+    private static final int EXTRA_BUCKETS = 2;
+    // Saves younger than this may still have their asynchronous append in flight
+    private static final Duration RECONCILE_SETTLE = Duration.ofMinutes(1);
+    // Window checked by the first run after a start, earlier misses stay until the next archive or a manual rebuild
+    private static final Duration RECONCILE_INITIAL_WINDOW = Duration.ofHours(1);
+    // Messages read per round, the memory of a run stays bounded whatever the size of the window
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${messaging.buckets.enabled:false}")
+    private boolean enabled;
+
+    @Value("${messaging.buckets.size:200}")
+    private int bucketSize;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Replaces the bucketed copy of an edited or deleted message, messages not bucketed yet are picked up by reconcile()
+    @Async
+    public void store(Message message) {
+        if (!enabled || message.getSeq() == null || message.getChatId() == null) {
+            return;
+        }
+        try {
+            mongoTemplate.updateFirst(containingBucketQuery(message), new Update().set("messages.$", message), MessageBucket.class);
+        } catch (Exception e) {
+            // The message itself is stored, a stale copy is replaced by its next save
+            log.warn("Could not update message {} of chat {} in its bucket: {}", message.getId(), message.getChatId(), e.getMessage());
+        }
+    }
+
+    /**
+    Appends the messages inserted since the last run to their buckets.
+    One instance runs at a time under a Redis lock and the window it has covered is kept in Redis, so the work isn't
+    repeated per instance. The window is read in _id order, RECONCILE_CHUNK_SIZE messages at a time.
+    A run that stops midway is repeated by the next one, messages already in a bucket are skipped.
+    **/
+    @Scheduled(fixedDelayString = "${messaging.buckets.reconcile-delay-ms:300000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        Boolean locked = redisTemplate.opsForValue()
+                .setIfAbsent(CacheConstant.MESSAGE_BUCKET_LOCK_KEY, "locked", CacheConstant.MESSAGE_BUCKET_LOCK_TTL);
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+
+        try {
+            Object watermark = redisTemplate.opsForValue().get(CacheConstant.MESSAGE_BUCKET_WATERMARK_KEY);
+            Instant from = watermark != null
+                    ? Instant.ofEpochMilli(((Number) watermark).longValue())
+                    : Instant.now().minus(RECONCILE_INITIAL_WINDOW);
+            Instant to = Instant.now().minus(RECONCILE_SETTLE);
+            if (!to.isAfter(from)) {
+                return;
+            }
+
+            int appended = 0;
+            ObjectId after = null;
+            List<Message> chunk;
+            do {
+                // Ids carry their insert time, the _id index serves the window and the chunk boundaries
+                Criteria window = after != null
+                        ? Criteria.where("_id").gt(after).lt(objectIdAt(to))
+                        : Criteria.where("_id").gte(objectIdAt(from)).lt(objectIdAt(to));
+                chunk = mongoTemplate.find(new Query(window.and("seq").ne(null))
+                        .with(Sort.by(Sort.Direction.ASC, "_id"))
+                        .limit(RECONCILE_CHUNK_SIZE), Message.class);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                appended += appendMissing(chunk);
+                after = new ObjectId(chunk.getLast().getId());
+            } while (chunk.size() == RECONCILE_CHUNK_SIZE);
+
+            redisTemplate.opsForValue().set(CacheConstant.MESSAGE_BUCKET_WATERMARK_KEY, to.toEpochMilli());
+            if (appended > 0) {
+                log.debug("Appended {} messages to their buckets", appended);
+            }
+        } finally {
+            redisTemplate.delete(CacheConstant.MESSAGE_BUCKET_LOCK_KEY);
+        }
+    }
+
+    private int appendMissing(List<Message> chunk) {
+        Map<String, Map<Long, Message>> messagesByChat = new HashMap<>();
+        for (Message message : chunk) {
+            messagesByChat.computeIfAbsent(message.getChatId(), chatId -> new TreeMap<>()).put(message.getSeq(), message);
+        }
+
+        int appended = 0;
+        for (Map.Entry<String, Map<Long, Message>> entry : messagesByChat.entrySet()) {
+            Map<Long, Message> missing = entry.getValue();
+            Query buckets = new Query(Criteria.where("chatId").is(entry.getKey()).and("messages.seq").in(missing.keySet()));
+            buckets.fields().include("messages.seq");
+            for (MessageBucket bucket : mongoTemplate.find(buckets, MessageBucket.class)) {
+                bucket.getMessages().forEach(message -> missing.remove(message.getSeq()));
+            }
+            try {
+                append(entry.getKey(), new ArrayList<>(missing.values()));
+                appended += missing.size();
+            } catch (Exception e) {
+                // Pages of this range keep reading the messages collection, the next run covers the chat again
+                log.warn("Could not append messages of chat {} to their buckets: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        return appended;
+    }
+
+    // Called once messages up to upToSeq have been archived, buckets don't outlive the hot range they copy
+    public void removeUpTo(String chatId, long upToSeq) {
+        if (!enabled || upToSeq <= 0) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("chatId").is(chatId).and("lastSeq").lte(upToSeq)), MessageBucket.class);
+        // Buckets straddling the boundary keep their newer messages
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("chatId").is(chatId).and("firstSeq").lte(upToSeq)),
+                new Update().pull("messages", new Document("seq", new Document("$lte", upToSeq))),
+                MessageBucket.class
+        );
+    }
+
+    /**
+    Up to limit messages of the chat with a sequence number below beforeSeq, newest first.
+    Buckets are walked from the newest first sequence number down until the page is complete.
+    Empty while the buckets don't reach up to beforeSeq yet, a page from them would skip the newest messages.
+    **/
+    public List<Message> findBefore(String chatId, long beforeSeq, int limit) {
+        if (!mongoTemplate.exists(new Query(Criteria.where("chatId").is(chatId).and("lastSeq").gte(beforeSeq - 1)), MessageBucket.class)) {
+            return List.of();
+        }
+
+        // Keyed by id, a message appended twice by racing writes is returned once
+        Map<String, Message> found = new HashMap<>();
+        int bucketsPerQuery = limit / bucketSize + 1 + EXTRA_BUCKETS;
+        long upperBound = beforeSeq;
+
+        while (true) {
+            Query query = new Query(Criteria.where("chatId").is(chatId).and("firstSeq").lt(upperBound))
+                    .with(Sort.by(Sort.Direction.DESC, "firstSeq"))
+                    .limit(bucketsPerQuery);
+            List<MessageBucket> buckets = mongoTemplate.find(query, MessageBucket.class);
+
+            for (MessageBucket bucket : buckets) {
+                for (Message message : bucket.getMessages()) {
+                    if (message.getSeq() != null && message.getSeq() < beforeSeq) {
+                        found.merge(message.getId(), message, this::newer);
+                    }
+                }
+            }
+
+            if (buckets.size() < bucketsPerQuery) {
+                break;
+            }
+            upperBound = buckets.getLast().getFirstSeq();
+            // Older buckets only hold smaller sequence numbers once the page is filled from above the last bucket read
+            if (countAtLeast(found.values(), upperBound) >= limit) {
+                break;
+            }
+        }
+
+        return found.values().stream()
+                .sorted(Comparator.comparing(Message::getSeq).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // Messages of one chat in sequence order: the open bucket of each day is topped up with one update, the rest go into new full buckets
+    private void append(String chatId, List<Message> messages) {
+        Map<Instant, List<Message>> messagesByDay = new LinkedHashMap<>();
+        for (Message message : messages) {
+            Instant sentAt = message.getCreatedAt() != null ? message.getCreatedAt() : Instant.now();
+            messagesByDay.computeIfAbsent(sentAt.truncatedTo(ChronoUnit.DAYS), day -> new ArrayList<>()).add(message);
+        }
+
+        List<MessageBucket> newBuckets = new ArrayList<>();
+        for (Map.Entry<Instant, List<Message>> entry : messagesByDay.entrySet()) {
+            List<Message> remaining = entry.getValue();
+
+            Query openBucket = new Query(Criteria.where("chatId").is(chatId)
+                    .and("day").is(entry.getKey())
+                    .and("count").lt(bucketSize));
+            openBucket.fields().include("_id").include("count");
+            MessageBucket open = mongoTemplate.findOne(openBucket, MessageBucket.class);
+            if (open != null) {
+                List<Message> topUp = remaining.subList(0, Math.min(bucketSize - open.getCount(), remaining.size()));
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(open.getId())), new Update()
+                        .push("messages").each(topUp.toArray())
+                        .inc("count", topUp.size())
+                        .min("firstSeq", topUp.getFirst().getSeq())
+                        .max("lastSeq", topUp.getLast().getSeq()), MessageBucket.class);
+                remaining = remaining.subList(topUp.size(), remaining.size());
+            }
+
+            for (int start = 0; start < remaining.size(); start += bucketSize) {
+                List<Message> filled = new ArrayList<>(remaining.subList(start, Math.min(start + bucketSize, remaining.size())));
+                newBuckets.add(MessageBucket.builder()
+                        .chatId(chatId)
+                        .day(entry.getKey())
+                        .firstSeq(filled.getFirst().getSeq())
+                        .lastSeq(filled.getLast().getSeq())
+                        .count(filled.size())
+                        .messages(filled)
+                        .build());
+            }
+        }
+
+        if (!newBuckets.isEmpty()) {
+            mongoTemplate.insert(newBuckets, MessageBucket.class);
+        }
+    }
+
+    private Query containingBucketQuery(Message message) {
+        return new Query(Criteria.where("chatId").is(message.getChatId())
+                .and("firstSeq").lte(message.getSeq())
+                .and("lastSeq").gte(message.getSeq())
+                .and("messages.seq").is(message.getSeq()));
+    }
+
+    private ObjectId objectIdAt(Instant instant) {
+        return new ObjectId(String.format("%08x%016x", instant.getEpochSecond(), 0));
+    }
+
+    private Message newer(Message first, Message second) {
+        if (first.getUpdatedAt() == null) {
+            return second;
+        }
+        return second.getUpdatedAt() != null && second.getUpdatedAt().isAfter(first.getUpdatedAt()) ? second : first;
+    }
+
+    private long countAtLeast(Collection<Message> messages, long seq) {
+        return messages.stream().filter(message -> message.getSeq() >= seq).count();
+    }
+}
@@ -0,0 +1,194 @@
+package chitchat.service;
+
+import chitchat.constant.WebSocketDestination;
+import chitchat.dto.response.message.MessageResponse;
+import chitchat.dto.response.websocket.WebSocketResponse;
+import chitchat.model.Chat;
+import chitchat.model.Message;
+import chitchat.model.MessageBucket;
+import chitchat.model.enumeration.ChatEvent;
+import chitchat.service.interfaces.NotificationService;
+import chitchat.service.interfaces.NotificationService.Notification;
+import chitchat.utils.HashedWheelTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+Fan-out for disappearing messages. Mongo removes expired messages through the TTL index on expiresAt,
+this service tells the chats about it: messages expiring within the next hour sit in a hashed wheel timer,
+and when they are due their chats receive MESSAGE_DELETED and chat summaries still showing them are cleared.
+The wheel only ever holds the next hour, so neither memory nor the work per tick depends on how much has expired.
+Every instance reloads the horizon, clients handle a repeated MESSAGE_DELETED like the first one.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageExpiryService {
+
+    private static final Duration HORIZON = Duration.ofHours(1);
+    private static final Duration TICK = Duration.ofSeconds(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationService notificationService;
+    private final MessageBucketStore messageBucketStore;
+
+    // One slot per tick of the horizon, a deadline lands in its slot on the first turn
+    private final HashedWheelTimer<ExpiringMessage> timer =
+            new HashedWheelTimer<>("message-expiry", TICK, (int) (HORIZON.toMillis() / TICK.toMillis()));
+
+    private record ExpiringMessage(String id, String chatId, Long seq, Instant expiresAt) {
+    }
+
+    @PostConstruct
+    public void start() {
+        timer.start(this::expire);
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.stop();
+    }
+
+    // Messages sent or edited on this instance, anything beyond the horizon is picked up by a later reload
+    public void track(Message message) {
+        if (message.getExpiresAt() == null || message.getId() == null) {
+            return;
+        }
+        if (message.getExpiresAt().isBefore(Instant.now().plus(HORIZON))) {
+            timer.schedule(message.getId(), message.getExpiresAt(),
+                    new ExpiringMessage(message.getId(), message.getChatId(), message.getSeq(), message.getExpiresAt()));
+        }
+    }
+
+    // Runs at startup and twice per horizon, the TTL index serves the range query
+    @Scheduled(fixedDelay = 1_800_000)
+    public void loadHorizon() {
+        Query query = new Query(Criteria.where("expiresAt").lt(Instant.now().plus(HORIZON)));
+        query.fields().include("_id", "chatId", "seq", "expiresAt");
+
+        int loaded = 0;
+        try (Stream<Message> messages = mongoTemplate.stream(query, Message.class)) {
+            for (Message message : (Iterable<Message>) messages::iterator) {
+                timer.schedule(message.getId(), message.getExpiresAt(),
+                        new ExpiringMessage(message.getId(), message.getChatId(), message.getSeq(), message.getExpiresAt()));
+                loaded++;
+            }
+        }
+        if (loaded > 0) {
+            log.info("Scheduled {} expiring messages", loaded);
+        }
+    }
+
+    // Called on the timer thread with everything due in one tick
+    private void expire(List<ExpiringMessage> expired) {
+        Map<String, List<ExpiringMessage>> expiredByChat = expired.stream()
+                .collect(Collectors.groupingBy(ExpiringMessage::chatId));
+
+        for (ExpiringMessage message : expired) {
+            messagingTemplate.convertAndSend(
+                    WebSocketDestination.CHAT_TOPIC_PREFIX + message.chatId(),
+                    new WebSocketResponse<>(ChatEvent.MESSAGE_DELETED, toDeletedResponse(message))
+            );
+        }
+
+        if (messageBucketStore.isEnabled()) {
+            removeFromBuckets(expiredByChat);
+        }
+
+        clearLastMessages(expired);
+    }
+
+    // Bucket copies are not covered by the TTL index, they are pulled with one update per chat
+    private void removeFromBuckets(Map<String, List<ExpiringMessage>> expiredByChat) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MessageBucket.class);
+        int operations = 0;
+
+        for (Map.Entry<String, List<ExpiringMessage>> entry : expiredByChat.entrySet()) {
+            List<Long> seqs = entry.getValue().stream()
+                    .map(ExpiringMessage::seq)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (seqs.isEmpty()) {
+                continue;
+            }
+            bulkOperations.updateMulti(
+                    new Query(Criteria.where("chatId").is(entry.getKey()).and("messages.seq").in(seqs)),
+                    new Update().pull("messages", new Document("seq", new Document("$in", seqs)))
+            );
+            operations++;
+        }
+
+        if (operations > 0) {
+            bulkOperations.execute();
+        }
+    }
+
+    /**
+    Chats whose last message expired keep showing it as deleted, like a deleted last message, and the copied content is dropped.
+    The update is conditional on the last message, a message sent in the meantime stays untouched.
+    **/
+    private void clearLastMessages(List<ExpiringMessage> expired) {
+        Map<String, ExpiringMessage> expiredById = expired.stream()
+                .collect(Collectors.toMap(ExpiringMessage::id, message -> message, (first, second) -> first));
+
+        Query query = new Query(Criteria.where("_id").in(expired.stream().map(ExpiringMessage::chatId).distinct().toList())
+                .and("lastMessageId").in(expiredById.keySet()));
+        query.fields().include("_id", "lastMessageId", "participants");
+        List<Chat> chats = mongoTemplate.find(query, Chat.class);
+        if (chats.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Chat.class);
+        List<Notification> notifications = new ArrayList<>();
+
+        for (Chat chat : chats) {
+            bulkOperations.updateOne(
+                    new Query(Criteria.where("_id").is(chat.getId()).and("lastMessageId").is(chat.getLastMessageId())),
+                    new Update()
+                            .set("isLastMessageDeleted", true)
+                            .unset("lastMessageContent")
+                            .unset("lastMessageMediaUrl")
+            );
+
+            ExpiringMessage message = expiredById.get(chat.getLastMessageId());
+            WebSocketResponse<MessageResponse> webSocketResponse =
+                    new WebSocketResponse<>(ChatEvent.MESSAGE_DELETED, toDeletedResponse(message));
+            for (String participantId : chat.getParticipants()) {
+                notifications.add(new Notification(WebSocketDestination.USER_NOTIFICATION_PREFIX + participantId, webSocketResponse));
+            }
+        }
+
+        bulkOperations.execute();
+        notificationService.sendNotifications(notifications);
+    }
+
+    // expiresAt tells clients the deletion came from expiry, not from the sender
+    private MessageResponse toDeletedResponse(ExpiringMessage message) {
+        return MessageResponse.builder()
+                .id(message.id())
+                .chatId(message.chatId())
+                .seq(message.seq())
+                .isDeleted(true)
+                .expiresAt(message.expiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package chitchat.service;
+
+import chitchat.model.Message;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+Inserts new chat messages, optionally through a group commit.
+With messaging.group-commit.enabled senders enqueue their message and a single writer drains the queue into
+one unordered bulk insert per batch, flushed when it is full or when the oldest message has waited the maximum delay.
+Each sender still returns only after its own insert is acknowledged, so the durability guarantee is the one of a plain save,
+but a burst costs one round trip per batch instead of one per message.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MessageGroupCommitWriter {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final MessageSequencer messageSequencer;
+
+    @Value("${messaging.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${messaging.group-commit.batch-size:256}")
+    private int batchSize;
+
+    @Value("${messaging.group-commit.max-delay-ms:5}")
+    private long maxDelayMillis;
+
+    @Value("${messaging.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<PendingWrite> queue;
+    private volatile boolean running = false;
+    private Thread writer;
+
+    private record PendingWrite(Message message, CompletableFuture<Message> result) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = Thread.ofVirtual().name("message-group-commit").start(this::run);
+        log.info("Message group commit enabled, batch size {}, max delay {}ms", batchSize, maxDelayMillis);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            // The writer drains what is still queued before it exits
+            writer.join();
+        }
+    }
+
+    public Message insert(Message message) {
+        if (!running) {
+            return mongoTemplate.insert(message);
+        }
+
+        // Bulk inserts don't hand generated ids back, so everything the sender reads afterwards is set up front
+        assignIdentity(message);
+
+        PendingWrite write = new PendingWrite(message, new CompletableFuture<>());
+        try {
+            // Blocks while the queue is full, which slows senders down instead of buffering without bound
+            queue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing message", e);
+        }
+
+        // stop() may have run between the check above and the put, and the writer may already be gone.
+        // A write still in the queue is taken back and stored here, one the writer took is written by it
+        if (!running && queue.remove(write)) {
+            return mongoTemplate.insert(message);
+        }
+
+        try {
+            return write.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // For senders that need the id, sequence number and timestamp before the message is stored
+    public void assignIdentity(Message message) {
+        if (message.getId() != null) {
+            return;
+        }
+        Instant now = Instant.now();
+        message.setId(new ObjectId().toHexString());
+        message.setSeq(messageSequencer.next(message.getChatId()));
+        message.setCreatedAt(now);
+        message.setUpdatedAt(now);
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                // Only stop() ends the writer, a stray interrupt must not strand queued senders.
+                // Writes already drained into the batch are stored rather than dropped with their senders waiting
+                log.warn("Message group commit writer interrupted, continuing");
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<PendingWrite> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        List<Message> messages = batch.stream().map(PendingWrite::message).toList();
+        boolean[] failed = new boolean[batch.size()];
+
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Message.class).insert(messages).execute();
+        } catch (BulkOperationException e) {
+            // A write concern failure reports no single message, none of the batch can be confirmed
+            if (e.getErrors().isEmpty()) {
+                batch.forEach(write -> write.result().completeExceptionally(e));
+                return;
+            }
+            // Unordered: only the reported messages are missing, every other one of the batch is stored
+            for (BulkWriteError writeError : e.getErrors()) {
+                failed[writeError.getIndex()] = true;
+                batch.get(writeError.getIndex()).result()
+                        .completeExceptionally(new IllegalStateException("Could not save message: " + writeError.getMessage()));
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(write -> write.result().completeExceptionally(e));
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (!failed[i]) {
+                batch.get(i).result().complete(batch.get(i).message());
+            }
+        }
+    }
+}
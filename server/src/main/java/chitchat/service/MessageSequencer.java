@@ -0,0 +1,81 @@
+package chitchat.service;
+
+import chitchat.constant.CacheConstant;
+import chitchat.model.Chat;
+import chitchat.model.Message;
+import chitchat.repository.ChatRepository;
+import chitchat.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+Hands out per-chat message sequence numbers that increase by one with every message.
+A single instance keeps one atomic counter per chat, spread over the hash bins of a concurrent map,
+so concurrent sends in different chats never contend and sends in the same chat only race on a CAS.
+Several instances must share the counters, with messaging.sequencer.distributed they live in Redis and are advanced with INCR.
+Either way a counter starts from the highest sequence number the chat has used. The newest messages may be gone
+from the messages collection (expired by the TTL index or archived), so the chat's last message sequence number
+and the last archived one count as well.
+**/
+@Service
+@RequiredArgsConstructor
+public class MessageSequencer {
+
+    private final MessageRepository messageRepository;
+    private final ChatRepository chatRepository;
+    private final MessageArchiveService messageArchiveService;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${messaging.sequencer.distributed:false}")
+    private boolean distributed;
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+    // Chats whose Redis counter this instance has already seeded
+    private final Set<String> seededChats = ConcurrentHashMap.newKeySet();
+
+    public long next(String chatId) {
+        return distributed ? nextFromRedis(chatId) : nextLocal(chatId);
+    }
+
+    private long nextLocal(String chatId) {
+        AtomicLong counter = counters.get(chatId);
+        if (counter == null) {
+            // Loaded outside the map so the query doesn't hold a bin lock, the first loader wins
+            AtomicLong loaded = new AtomicLong(findLastSeq(chatId));
+            counter = Objects.requireNonNullElse(counters.putIfAbsent(chatId, loaded), loaded);
+        }
+        return counter.incrementAndGet();
+    }
+
+    private long nextFromRedis(String chatId) {
+        String key = CacheConstant.CHAT_SEQUENCE_PREFIX + chatId;
+        if (!seededChats.contains(chatId)) {
+            // SETNX keeps a counter another instance already advanced
+            redisTemplate.opsForValue().setIfAbsent(key, findLastSeq(chatId));
+            seededChats.add(chatId);
+        }
+        Long seq = redisTemplate.opsForValue().increment(key);
+        if (seq == null) {
+            throw new IllegalStateException("Could not assign a sequence number for chat " + chatId);
+        }
+        return seq;
+    }
+
+    private long findLastSeq(String chatId) {
+        long storedSeq = messageRepository.findFirstByChatIdAndSeqNotNullOrderBySeqDesc(chatId)
+                .map(Message::getSeq)
+                .orElse(0L);
+        long lastMessageSeq = chatRepository.findById(chatId)
+                .map(Chat::getLastMessageSeq)
+                .orElse(0L);
+        return Math.max(Math.max(storedSeq, lastMessageSeq), messageArchiveService.getLastArchivedSeq(chatId));
+    }
+}
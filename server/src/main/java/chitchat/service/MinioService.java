@@ -7,6 +7,8 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -101,6 +103,29 @@ public class MinioService {
         return bucketName + "/" + randomFileName;
     }
 
+    // For content generated by the application rather than uploaded, the caller chooses the object name
+    public void uploadToPrivateBucket(String objectName, byte[] content, String contentType) throws Exception {
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(privateBucket)
+                        .object(objectName)
+                        .stream(new ByteArrayInputStream(content), content.length, -1)
+                        .contentType(contentType)
+                        .build()
+        );
+    }
+
+    public byte[] downloadFromPrivateBucket(String objectName) throws Exception {
+        try (InputStream stream = minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(privateBucket)
+                        .object(objectName)
+                        .build()
+        )) {
+            return stream.readAllBytes();
+        }
+    }
+
     private String getFileExtension(String originalFileName) {
         int lastDotIndex = originalFileName.lastIndexOf(".");
         if (lastDotIndex > 0) {
@@ -136,6 +161,20 @@ public class MinioService {
         );
     }
 
+    // Streams a stored file given as bucket-name/file-name, the caller closes the stream
+    public InputStream openFile(String filePath) throws Exception {
+        String[] parts = filePath.split("/");
+        if (parts.length != 2) {
+            throw new RuntimeException("Invalid file path format: " + filePath);
+        }
+        return minioClient.getObject(
+                GetObjectArgs.builder()
+                        .bucket(parts[0])
+                        .object(parts[1])
+                        .build()
+        );
+    }
+
     public void deleteFileFromPublicBucket(String fileName) throws Exception {
         deleteFile(fileName, publicBucket);
     }
@@ -0,0 +1,54 @@
+package chitchat.service;
+
+import chitchat.constant.WebSocketDestination;
+import chitchat.dto.response.event.RelationshipEventResponse;
+import chitchat.dto.response.websocket.WebSocketResponse;
+import chitchat.model.enumeration.ChatEvent;
+import chitchat.service.interfaces.NotificationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+Delivers friend request events to the affected users over their notification queue.
+Events are buffered per recipient and flushed together, so a burst such as accepting many requests
+reaches each client as one RELATIONSHIP_UPDATED frame instead of one frame per change.
+**/
+@Service
+@RequiredArgsConstructor
+public class RelationshipEventPublisher {
+
+    private final NotificationService notificationService;
+
+    // recipientId -> actorId -> latest event, only the final state between two users matters to the client
+    private final Map<String, Map<String, RelationshipEventResponse>> pendingEvents = new ConcurrentHashMap<>();
+
+    public void publish(String recipientId, RelationshipEventResponse event) {
+        pendingEvents.compute(recipientId, (id, events) -> {
+            Map<String, RelationshipEventResponse> batch = events != null ? events : new LinkedHashMap<>();
+            batch.put(event.getUser().getId(), event);
+            return batch;
+        });
+    }
+
+    @Scheduled(fixedDelay = 250)
+    public void flush() {
+        for (String recipientId : pendingEvents.keySet()) {
+            // Events published after the removal start a new batch for the next flush
+            Map<String, RelationshipEventResponse> batch = pendingEvents.remove(recipientId);
+            if (batch == null || batch.isEmpty()) {
+                continue;
+            }
+
+            notificationService.sendNotification(
+                    WebSocketDestination.USER_NOTIFICATION_PREFIX + recipientId,
+                    new WebSocketResponse<>(ChatEvent.RELATIONSHIP_UPDATED, new ArrayList<>(batch.values()))
+            );
+        }
+    }
+}
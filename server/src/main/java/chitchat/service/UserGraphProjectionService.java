@@ -0,0 +1,219 @@
+package chitchat.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+Keeps the (:User) graph nodes in sync with the Mongo users collection by tailing its change stream.
+Events are coalesced per user and written to Neo4j in UNWIND batches, the resume token is stored
+after every flushed batch so a restart continues where the previous run stopped.
+Change streams need Mongo to run as a replica set, so the projection is opt-in.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserGraphProjectionService {
+
+    private static final String USERS_COLLECTION = "users";
+    private static final String RESUME_TOKEN_KEY = "projection:user-graph:resume-token";
+    private static final int BATCH_SIZE = 500;
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(200);
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    // Mongo error code for a resume token that has fallen off the oplog
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final List<String> PROJECTED_FIELDS = List.of("fullName", "profileImageUrl", "bio");
+
+    private static final String UPSERT_USERS_QUERY = """
+        UNWIND $rows AS row
+        MERGE (u:User {userId: row.userId})
+        ON CREATE SET u.id = randomUUID()
+        SET u.fullName = row.fullName,
+            u.profileImageUrl = row.profileImageUrl,
+            u.bio = row.bio
+        """;
+
+    private static final String DELETE_USERS_QUERY = """
+        UNWIND $userIds AS userId
+        MATCH (u:User {userId: userId})
+        DETACH DELETE u
+        """;
+
+    private final MongoTemplate mongoTemplate;
+    private final Neo4jClient neo4jClient;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${projection.user-graph.enabled:false}")
+    private boolean enabled;
+
+    private volatile boolean running = false;
+    private Thread worker;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofVirtual().name("user-graph-projection").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                tail();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // Nothing to resume from anymore, start again from the current position
+                    log.warn("User graph projection resume token expired, restarting from now");
+                    redisTemplate.delete(RESUME_TOKEN_KEY);
+                } else {
+                    log.error("User graph projection failed, retrying in {}s", RETRY_DELAY.toSeconds(), e);
+                    sleepBeforeRetry();
+                }
+            } catch (Exception e) {
+                if (running) {
+                    log.error("User graph projection failed, retrying in {}s", RETRY_DELAY.toSeconds(), e);
+                    sleepBeforeRetry();
+                }
+            }
+        }
+    }
+
+    private void tail() {
+        var changeStream = mongoTemplate.getCollection(USERS_COLLECTION)
+                .watch(List.of(Aggregates.match(relevantChanges())))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(FLUSH_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+
+        BsonDocument resumeToken = loadResumeToken();
+        if (resumeToken != null) {
+            changeStream = changeStream.resumeAfter(resumeToken);
+        }
+
+        // Latest state per user, so a burst of edits to one profile becomes a single write
+        Map<String, Document> pendingUpserts = new LinkedHashMap<>();
+        Set<String> pendingDeletes = new LinkedHashSet<>();
+        long lastFlush = System.nanoTime();
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = changeStream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+
+                if (change != null) {
+                    String userId = toUserId(change.getDocumentKey());
+
+                    if (change.getOperationType() == OperationType.DELETE) {
+                        pendingUpserts.remove(userId);
+                        pendingDeletes.add(userId);
+                    }
+                    // A null full document means the user was deleted before the lookup, the delete event follows
+                    else if (change.getFullDocument() != null) {
+                        pendingDeletes.remove(userId);
+                        pendingUpserts.put(userId, change.getFullDocument());
+                    }
+                }
+
+                int pending = pendingUpserts.size() + pendingDeletes.size();
+                boolean intervalElapsed = System.nanoTime() - lastFlush >= FLUSH_INTERVAL.toNanos();
+
+                if (pending >= BATCH_SIZE || (pending > 0 && intervalElapsed)) {
+                    flush(pendingUpserts, pendingDeletes, cursor.getResumeToken());
+                    lastFlush = System.nanoTime();
+                }
+            }
+        }
+    }
+
+    private void flush(Map<String, Document> pendingUpserts, Set<String> pendingDeletes, BsonDocument resumeToken) {
+        if (!pendingUpserts.isEmpty()) {
+            List<Map<String, Object>> rows = new ArrayList<>(pendingUpserts.size());
+            pendingUpserts.forEach((userId, user) -> {
+                Map<String, Object> row = new HashMap<>();
+                row.put("userId", userId);
+                PROJECTED_FIELDS.forEach(field -> row.put(field, user.get(field)));
+                rows.add(row);
+            });
+
+            neo4jClient.query(UPSERT_USERS_QUERY).bind(rows).to("rows").run();
+        }
+
+        if (!pendingDeletes.isEmpty()) {
+            neo4jClient.query(DELETE_USERS_QUERY).bind(new ArrayList<>(pendingDeletes)).to("userIds").run();
+        }
+
+        log.debug("User graph projection wrote {} upserts and {} deletes", pendingUpserts.size(), pendingDeletes.size());
+
+        pendingUpserts.clear();
+        pendingDeletes.clear();
+
+        // Stored only after the writes succeeded, a crash replays the batch and the writes are idempotent
+        if (resumeToken != null) {
+            redisTemplate.opsForValue().set(RESUME_TOKEN_KEY, resumeToken.toJson());
+        }
+    }
+
+    // Only inserts, replaces, deletes and updates touching a projected field reach the application
+    private Bson relevantChanges() {
+        List<Bson> conditions = new ArrayList<>();
+        conditions.add(Filters.in("operationType", "insert", "replace", "delete"));
+        for (String field : PROJECTED_FIELDS) {
+            conditions.add(Filters.exists("updateDescription.updatedFields." + field));
+            conditions.add(Filters.in("updateDescription.removedFields", field));
+        }
+        return Filters.or(conditions);
+    }
+
+    private String toUserId(BsonDocument documentKey) {
+        BsonValue id = documentKey.get("_id");
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+
+    private BsonDocument loadResumeToken() {
+        Object token = redisTemplate.opsForValue().get(RESUME_TOKEN_KEY);
+        return token != null ? BsonDocument.parse(token.toString()) : null;
+    }
+
+    private void sleepBeforeRetry() {
+        try {
+            Thread.sleep(RETRY_DELAY);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package chitchat.service;
+
+import chitchat.constant.CacheConstant;
+import chitchat.model.User;
+import chitchat.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+In-process prefix index over the names of all users, used for search-as-you-type.
+Names are lower-cased and diacritic-folded ("Nguyễn" -> "nguyen") and split into tokens.
+Each token maps to the users carrying it, so a prefix lookup is a range scan over a sorted map.
+Every instance holds its own copy: local changes are published on a Redis channel with the changed user ids,
+the other instances reload those users from Mongo, so a rename or registration on one instance reaches all of them.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserNameIndex {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    // Below every generated id, the rebuild starts after it
+    private static final String MIN_ID = "000000000000000000000000";
+    // Counting stops past this many matches, a larger count only tells "more than MAX_COUNT"
+    public static final int MAX_COUNT = 1000;
+    private static final char SORT_KEY_SEPARATOR = '\u0000';
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    // Tells this instance's own announcements apart from those of the others
+    private static final String INSTANCE_ID = UUID.randomUUID().toString();
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+    // token -> "normalizedFullName\0userId" entries, so users sharing a token are walked in name order
+    private final ConcurrentSkipListMap<String, ConcurrentSkipListSet<String>> tokenIndex = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, IndexedUser> users = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    @Getter
+    @AllArgsConstructor
+    public static class IndexedUser {
+        private final String id;
+        private final String fullName;
+        private final String profileImageUrl;
+        private final String sortKey;
+        private final List<String> tokens;
+    }
+
+    // Subscribed before the rebuild starts, so no change made while it runs is missed
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this::onUsersChanged,
+                new ChannelTopic(CacheConstant.USER_NAME_INDEX_CHANNEL));
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long startTime = System.currentTimeMillis();
+        String lastId = MIN_ID;
+        List<User> batch;
+
+        // Each batch continues after the last id of the previous one, so no batch skips over the users already loaded
+        do {
+            batch = userRepository.findByIdGreaterThan(lastId, PageRequest.of(0, LOAD_BATCH_SIZE, Sort.by("id")));
+            batch.forEach(this::index);
+            if (!batch.isEmpty()) {
+                lastId = batch.getLast().getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        ready = true;
+        log.info("User name index built with {} users in {} ms", users.size(), System.currentTimeMillis() - startTime);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void put(User user) {
+        putAll(List.of(user));
+    }
+
+    public void putAll(List<User> changedUsers) {
+        if (changedUsers.isEmpty()) {
+            return;
+        }
+        changedUsers.forEach(this::index);
+        redisTemplate.convertAndSend(CacheConstant.USER_NAME_INDEX_CHANNEL, Map.of(
+                "instanceId", INSTANCE_ID,
+                "userIds", changedUsers.stream().map(User::getId).toList()));
+    }
+
+    // Reloads the announced users instead of trusting the payload, so announcements arriving out of order still end on the stored name
+    @SuppressWarnings("unchecked")
+    private void onUsersChanged(Message message, byte[] pattern) {
+        try {
+            Map<String, Object> change = (Map<String, Object>) redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (change == null || INSTANCE_ID.equals(change.get("instanceId"))) {
+                return;
+            }
+            List<String> userIds = (List<String>) change.get("userIds");
+            Set<String> missingUserIds = new HashSet<>(userIds);
+            for (User user : userRepository.findAllById(userIds)) {
+                index(user);
+                missingUserIds.remove(user.getId());
+            }
+            missingUserIds.forEach(this::remove);
+        } catch (Exception e) {
+            log.warn("Could not apply user name index change: {}", e.getMessage());
+        }
+    }
+
+    private void index(User user) {
+        index(user.getId(), user.getFullName(), user.getProfileImageUrl());
+    }
+
+    // Writers are rare (registration and profile updates), so they are serialized to keep
+    // the token sets and the user map consistent with each other
+    private synchronized void index(String userId, String fullName, String profileImageUrl) {
+        remove(userId);
+
+        List<String> tokens = tokenize(fullName);
+        if (tokens.isEmpty()) {
+            return;
+        }
+
+        IndexedUser indexedUser = new IndexedUser(
+                userId,
+                fullName,
+                profileImageUrl,
+                normalize(fullName) + SORT_KEY_SEPARATOR + userId,
+                tokens
+        );
+        users.put(userId, indexedUser);
+
+        for (String token : tokens) {
+            tokenIndex.computeIfAbsent(token, key -> new ConcurrentSkipListSet<>()).add(indexedUser.getSortKey());
+        }
+    }
+
+    public synchronized void remove(String userId) {
+        IndexedUser existing = users.remove(userId);
+        if (existing == null) {
+            return;
+        }
+
+        for (String token : existing.getTokens()) {
+            tokenIndex.computeIfPresent(token, (key, entries) -> {
+                entries.remove(existing.getSortKey());
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    /**
+    Return up to limit users after skip whose name has a token starting with every query token.
+    Matches are grouped by the matching token in lexicographic order, users sharing a token are ordered by name.
+    **/
+    public List<IndexedUser> search(String query, Predicate<String> filter, int skip, int limit) {
+        List<IndexedUser> matches = collect(query, filter, skip + limit);
+        return skip >= matches.size() ? List.of() : matches.subList(skip, matches.size());
+    }
+
+    // At most MAX_COUNT + 1, anything above MAX_COUNT means more than MAX_COUNT matches
+    public long count(String query, Predicate<String> filter) {
+        return collect(query, filter, MAX_COUNT + 1).size();
+    }
+
+    private List<IndexedUser> collect(String query, Predicate<String> filter, int maxResults) {
+        List<String> queryTokens = tokenize(query);
+        List<IndexedUser> matches = new ArrayList<>();
+
+        if (queryTokens.isEmpty() || maxResults <= 0) {
+            return matches;
+        }
+
+        // Walk the range of the longest query token, it is the most selective one
+        String anchor = queryTokens.stream().max(Comparator.comparingInt(String::length)).orElseThrow();
+        Set<String> seenUserIds = new HashSet<>();
+
+        for (Set<String> entries : tokenIndex.subMap(anchor, true, anchor + Character.MAX_VALUE, false).values()) {
+            for (String entry : entries) {
+                String userId = entry.substring(entry.indexOf(SORT_KEY_SEPARATOR) + 1);
+                if (!seenUserIds.add(userId) || !filter.test(userId)) {
+                    continue;
+                }
+
+                IndexedUser user = users.get(userId);
+                if (user == null || !matchesAllTokens(user, queryTokens)) {
+                    continue;
+                }
+
+                matches.add(user);
+                if (matches.size() >= maxResults) {
+                    return matches;
+                }
+            }
+        }
+
+        return matches;
+    }
+
+    private boolean matchesAllTokens(IndexedUser user, List<String> queryTokens) {
+        for (String queryToken : queryTokens) {
+            boolean matched = false;
+            for (String token : user.getTokens()) {
+                if (token.startsWith(queryToken)) {
+                    matched = true;
+                    break;
+                }
+            }
+            if (!matched) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalize(text)))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    public static String normalize(String text) {
+        String withoutMarks = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        // "đ" is a separate letter rather than "d" plus a combining mark, so NFD doesn't fold it
+        return withoutMarks.toLowerCase(Locale.ROOT).replace('đ', 'd').trim();
+    }
+}
@@ -0,0 +1,133 @@
+package chitchat.service.implement;
+
+import chitchat.constant.CacheConstant;
+import chitchat.model.Chat;
+import chitchat.service.interfaces.AffinityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+Per-user interaction affinity kept in a Redis sorted set of contacts, updated on every sent message.
+Scores use forward decay: an interaction at time t adds 2^((t - epoch) / halfLife), so a message is
+worth twice one sent a half-life earlier. Ordering by the stored score is then the same as ordering
+by the decayed sum, and old scores don't have to be rewritten on every message.
+Weights grow without bound as the epoch falls behind, so each set keeps its own epoch next to it:
+once it is REBASE_HALF_LIVES old, the next write scales the whole set down and moves the epoch to now, in the same script.
+**/
+@Service
+@RequiredArgsConstructor
+public class AffinityServiceImpl implements AffinityService {
+
+    // Epoch of the sets written before each set kept its own
+    private static final Instant DECAY_EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+    private static final Duration HALF_LIFE = Duration.ofDays(7);
+    // Weights stay far below the double range limit (~1000 half-lives) and keep full precision relative to each other
+    private static final int REBASE_HALF_LIVES = 64;
+    // Messages in big groups say little about how close two members are
+    private static final int MAX_GROUP_SIZE_FOR_AFFINITY = 50;
+
+    // KEYS: the contact set and its epoch. ARGV: now, half-life and default epoch in seconds, rebase threshold in half-lives,
+    // the share of the message, the contact, the number of contacts kept and the expiry in seconds
+    private static final RedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local halfLife = tonumber(ARGV[2])
+            local epoch = tonumber(redis.call('get', KEYS[2]) or ARGV[3])
+            if (now - epoch) / halfLife > tonumber(ARGV[4]) then
+                local factor = 2 ^ (-(now - epoch) / halfLife)
+                local entries = redis.call('zrange', KEYS[1], 0, -1, 'WITHSCORES')
+                for i = 1, #entries, 2 do
+                    redis.call('zadd', KEYS[1], tonumber(entries[i + 1]) * factor, entries[i])
+                end
+                epoch = now
+            end
+            redis.call('zincrby', KEYS[1], tonumber(ARGV[5]) * 2 ^ ((now - epoch) / halfLife), ARGV[6])
+            redis.call('zremrangebyrank', KEYS[1], 0, -(tonumber(ARGV[7]) + 1))
+            redis.call('expire', KEYS[1], ARGV[8])
+            redis.call('set', KEYS[2], epoch, 'EX', ARGV[8])
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Async
+    @Override
+    public void recordMessage(Chat chat, String senderId) {
+        List<String> recipients = chat.getParticipants().stream()
+                .filter(id -> !id.equals(senderId))
+                .toList();
+
+        if (recipients.isEmpty() || chat.getParticipants().size() > MAX_GROUP_SIZE_FOR_AFFINITY) {
+            return;
+        }
+
+        // A group message is shared between its recipients, a private one counts both ways
+        double weight = 1.0 / recipients.size();
+        long now = Instant.now().getEpochSecond();
+        boolean isPrivateChat = !Boolean.TRUE.equals(chat.getIsGroupChat());
+
+        redisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+
+                for (String recipientId : recipients) {
+                    increment(redisOperations, senderId, recipientId, weight, now);
+                    if (isPrivateChat) {
+                        increment(redisOperations, recipientId, senderId, weight, now);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+    Order contacts by affinity, most interacted first, with one range read of the sorted set.
+    Contacts without any interaction follow in a stable order.
+    **/
+    @Override
+    public List<String> rankContacts(String userId, Collection<String> contactIds) {
+        Set<Object> rankedObjects = redisTemplate.opsForZSet()
+                .reverseRange(CacheConstant.AFFINITY_KEY_PREFIX + userId, 0, CacheConstant.MAX_AFFINITY_CONTACTS - 1);
+
+        Set<String> remaining = new HashSet<>(contactIds);
+        List<String> ordered = new ArrayList<>(contactIds.size());
+
+        if (rankedObjects != null) {
+            for (Object rankedObject : rankedObjects) {
+                String contactId = rankedObject.toString();
+                if (remaining.remove(contactId)) {
+                    ordered.add(contactId);
+                }
+            }
+        }
+
+        remaining.stream().sorted().forEach(ordered::add);
+        return ordered;
+    }
+
+    // Keeps only the top contacts, the rest would never make it to the front of a list
+    private void increment(RedisOperations<String, Object> operations, String userId, String contactId, double weight, long now) {
+        operations.execute(INCREMENT_SCRIPT,
+                List.of(CacheConstant.AFFINITY_KEY_PREFIX + userId, CacheConstant.AFFINITY_EPOCH_PREFIX + userId),
+                now,
+                HALF_LIFE.toSeconds(),
+                DECAY_EPOCH.getEpochSecond(),
+                REBASE_HALF_LIVES,
+                weight,
+                contactId,
+                CacheConstant.MAX_AFFINITY_CONTACTS,
+                CacheConstant.AFFINITY_TTL.toSeconds());
+    }
+}
@@ -12,6 +12,8 @@ import chitchat.model.security.CustomUserDetails;
 import chitchat.repository.UserNodeRepository;
 import chitchat.repository.UserRepository;
 import chitchat.security.service.JwtService;
+import chitchat.service.UserGraphProjectionService;
+import chitchat.service.UserNameIndex;
 import chitchat.service.interfaces.AuthenticationService;
 import chitchat.utils.CookieUtils;
 import jakarta.servlet.http.Cookie;
@@ -42,6 +44,8 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final CookieUtils cookieUtils;
     private final UserNodeRepository userNodeRepository;
+    private final UserNameIndex userNameIndex;
+    private final UserGraphProjectionService userGraphProjectionService;
 
     @Override
     public TokenResponse login(LoginRequest loginRequest, HttpServletResponse response) {
@@ -96,11 +100,17 @@ public class AuthenticationServiceImpl implements AuthenticationService {
 
         userRepository.save(user);
 
-        UserNode userNode = UserNode.builder()
-                .userId(user.getId())
-                .build();
+        // With the projection enabled the graph node is created from the users change stream
+        if (!userGraphProjectionService.isEnabled()) {
+            UserNode userNode = UserNode.builder()
+                    .userId(user.getId())
+                    .build();
+
+            userNodeRepository.save(userNode);
+        }
 
-        userNodeRepository.save(userNode);
+        // A new account has no name yet, this only clears a stale entry for a reused id
+        userNameIndex.put(user);
 
         CustomUserDetails userDetails = new CustomUserDetails(user);
 
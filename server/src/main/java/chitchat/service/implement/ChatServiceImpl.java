@@ -23,15 +23,24 @@ import chitchat.model.message.SystemMessage;
 import chitchat.model.security.CustomUserDetails;
 import chitchat.repository.*;
 import chitchat.security.service.CurrentUserService;
+import chitchat.service.BlockListCache;
+import chitchat.service.MessageArchiveService;
+import chitchat.service.MessageBucketStore;
 import chitchat.service.MinioService;
 import chitchat.service.interfaces.ChatService;
 import chitchat.service.interfaces.NotificationService;
+import chitchat.service.interfaces.SuggestionService;
 import chitchat.utils.SystemMessageUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -50,6 +59,7 @@ public class ChatServiceImpl implements ChatService {
     private static final int MIN_GROUP_CHAT_PARTICIPANTS = 3;
     private static final int MAX_GROUP_CHAT_PARTICIPANTS = 100;
     private static final int MIN_GROUP_CHAT_ADMINS = 1;
+    private static final long MIN_MESSAGE_EXPIRY_SECONDS = 60;
 
     private final ChatRepository chatRepository;
     private final ChatMapper chatMapper;
@@ -63,6 +73,11 @@ public class ChatServiceImpl implements ChatService {
     private final NotificationService notificationService;
     private final MinioService minioService;
     private final SystemMessageUtils systemMessageUtils;
+    private final SuggestionService suggestionService;
+    private final BlockListCache blockListCache;
+    private final MessageBucketStore messageBucketStore;
+    private final MessageArchiveService messageArchiveService;
+    private final MongoTemplate mongoTemplate;
 
     @Override
     @Transactional
@@ -167,6 +182,9 @@ public class ChatServiceImpl implements ChatService {
         // Save chat join info for all participants
         saveChatJoinInfo(newGroupChat, currentUser, createChatRequest.getParticipants());
 
+        // Group co-members feed each other's suggestions
+        suggestionService.markStale(newGroupChat.getParticipants());
+
         ChatResponse chatResponse = chatMapper.toChatResponse(currentUser, newGroupChat);
 
         notifyParticipantsAboutNewChat(newGroupChat, currentUser, chatResponse);
@@ -243,6 +261,7 @@ public class ChatServiceImpl implements ChatService {
         }
 
         if (latestMessage != null) {
+            chatRepository.save(chat);
             updateChatLastMessage(chat, latestMessage, currentUser.getUser());
         }
 
@@ -260,12 +279,81 @@ public class ChatServiceImpl implements ChatService {
             count++;
         }
 
-//        Don't need to save here (chat already has id unlike new chat creation)
-//        chatRepository.save(chat);
         ChatResponse response = chatMapper.toChatResponse(currentUser, chat);
         response.setUnreadMessageCount(count);
 
-        WebSocketResponse<ChatResponse> socketResponse = new WebSocketResponse<>(ChatEvent.CHAT_UPDATED, response);
+        WebSocketResponse<ChatResponse> socketResponse =
+                new WebSocketResponse<>(ChatEvent.CHAT_UPDATED, chatMapper.toBroadcastChatResponse(response));
+        for (String participantId : chat.getParticipants()) {
+            if (!participantId.equals(currentUser.getUser().getId())) {
+                notificationService.sendNotification(
+                        WebSocketDestination.USER_NOTIFICATION_PREFIX + participantId,
+                        socketResponse
+                );
+            }
+        }
+
+        return response;
+    }
+
+    @Override
+    public ChatResponse updateMessageExpiry(String chatId, Long messageExpirySeconds) throws Exception {
+        // 0 turns disappearing messages off like null
+        if (messageExpirySeconds != null && messageExpirySeconds == 0) {
+            messageExpirySeconds = null;
+        }
+        if (messageExpirySeconds != null
+                && (messageExpirySeconds < MIN_MESSAGE_EXPIRY_SECONDS || messageExpirySeconds > MAX_MESSAGE_EXPIRY_SECONDS)) {
+            throw new InvalidDataException("Message expiry must be between " + MIN_MESSAGE_EXPIRY_SECONDS
+                    + " and " + MAX_MESSAGE_EXPIRY_SECONDS + " seconds");
+        }
+
+        Chat chat = chatRepository.findById(chatId)
+                .orElseThrow(() -> new ResourceNotFoundException("Chat not found"));
+
+        CustomUserDetails currentUser = currentUserService.getCurrentUser();
+
+        if (!chat.getParticipants().contains(currentUser.getUser().getId())) {
+            throw new NoPermissionException("You do not have permission to update this chat.");
+        }
+
+        // In a group chat the setting applies to everyone, so only admins may change it
+        if (chat.getIsGroupChat() && !chat.getAdmins().contains(currentUser.getUser().getId())) {
+            throw new NoPermissionException("Only admins can change disappearing messages in this group chat");
+        }
+
+        if (Objects.equals(messageExpirySeconds, chat.getMessageExpirySeconds())) {
+            return chatMapper.toChatResponse(currentUser, chat);
+        }
+
+        // Only the setting is written, a full save could overwrite a concurrent last message update
+        chat.setMessageExpirySeconds(messageExpirySeconds);
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(chatId)),
+                new Update().set("messageExpirySeconds", messageExpirySeconds),
+                Chat.class
+        );
+
+        // Messages already sent keep their lifetime, the change applies from the next message on
+        Message systemMessage = createSystemMessage(
+                chat.getId(),
+                currentUser.getUser().getId(),
+                SystemMessageAction.UPDATE_MESSAGE_EXPIRY,
+                Map.of("messageExpirySeconds", messageExpirySeconds != null ? messageExpirySeconds : 0L)
+        );
+        messageRepository.save(systemMessage);
+        updateChatLastMessage(chat, systemMessage, currentUser.getUser());
+
+        messagingTemplate.convertAndSend(
+                WebSocketDestination.CHAT_TOPIC_PREFIX + chatId,
+                new WebSocketResponse<>(ChatEvent.NEW_MESSAGE, messageMapper.toMessageResponse(systemMessage))
+        );
+
+        ChatResponse response = chatMapper.toChatResponse(currentUser, chat);
+        response.setUnreadMessageCount(1);
+
+        WebSocketResponse<ChatResponse> socketResponse =
+                new WebSocketResponse<>(ChatEvent.CHAT_UPDATED, chatMapper.toBroadcastChatResponse(response));
         for (String participantId : chat.getParticipants()) {
             if (!participantId.equals(currentUser.getUser().getId())) {
                 notificationService.sendNotification(
@@ -387,6 +475,8 @@ public class ChatServiceImpl implements ChatService {
 
         // Save chat join info for all new participants
         saveChatJoinInfo(chat, currentUser, newParticipants);
+
+        suggestionService.markStale(chat.getParticipants());
     }
 
     @Override
@@ -475,6 +565,10 @@ public class ChatServiceImpl implements ChatService {
         chatRepository.save(chat);
 
         deleteChatJoinInfo(chat, targetUserId);
+
+        List<String> affectedUserIds = new ArrayList<>(chat.getParticipants());
+        affectedUserIds.add(targetUserId);
+        suggestionService.markStale(affectedUserIds);
     }
 
     @Override
@@ -690,36 +784,92 @@ public class ChatServiceImpl implements ChatService {
         }
 
         sortDirection = sortDirection == null || sortDirection.isEmpty() ? "DESC" : sortDirection.toUpperCase();
-        Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy != null ? sortBy : "createdAt");
+        Sort.Direction direction = Sort.Direction.fromString(sortDirection);
+        // The sequence number orders messages exactly, createdAt only orders the ones stored before sequencing
+        Sort sort = sortBy != null
+                ? Sort.by(direction, sortBy)
+                : Sort.by(direction, "seq").and(Sort.by(direction, "createdAt"));
 
         Pageable pageable = PageRequest.of(pageNumber - 1, pageSize, sort);
 
         Page<Message> messagePage;
+        Message referenceMessage = null;
 
         if (beforeMessageId != null && !beforeMessageId.isEmpty()) {
-            // Get the timestamp of the reference message
-            Message referenceMessage = messageRepository.findById(beforeMessageId)
+            referenceMessage = messageRepository.findById(beforeMessageId)
+                    .or(() -> messageArchiveService.findArchivedMessage(chatId, beforeMessageId))
                     .orElseThrow(() -> new ResourceNotFoundException("Reference message not found"));
 
+            // Older history in the default order is read from buckets when they hold the whole page
+            if (messageBucketStore.isEnabled() && sortBy == null && direction == Sort.Direction.DESC
+                    && pageNumber == 1 && referenceMessage.getSeq() != null) {
+                PageResponse<?> bucketPage = getBucketedMessages(chatId, referenceMessage.getSeq(), pageSize);
+                if (bucketPage != null) {
+                    return bucketPage;
+                }
+            }
+
             // Find messages older than the reference message
-            messagePage = messageRepository.findByChatIdAndCreatedAtBefore(
-                    chatId, referenceMessage.getCreatedAt(), pageable);
+            messagePage = referenceMessage.getSeq() != null
+                    ? messageRepository.findByChatIdAndSeqBefore(chatId, referenceMessage.getSeq(), pageable)
+                    : messageRepository.findUnsequencedByChatIdAndCreatedAtBefore(
+                            chatId, referenceMessage.getCreatedAt(), pageable);
         } else {
             // First page load
             messagePage = messageRepository.findByChatId(chatId, pageable);
         }
 
-        List<MessageResponse> messageResponses = messageMapper.toMessageResponseList(messagePage.getContent().reversed());
+        List<Message> messages = messagePage.getContent();
+        long totalElements = messagePage.getTotalElements();
+
+        // Archived history is older than everything left in the messages collection, pages running past it continue there
+        if (messageArchiveService.isEnabled() && sortBy == null && direction == Sort.Direction.DESC && pageNumber == 1
+                && (referenceMessage == null || referenceMessage.getSeq() != null)) {
+            long beforeSeq = referenceMessage != null ? referenceMessage.getSeq() : Long.MAX_VALUE;
+
+            if (messages.size() < pageSize && (messages.isEmpty() || messages.getLast().getSeq() != null)) {
+                long archiveBeforeSeq = messages.isEmpty() ? beforeSeq : messages.getLast().getSeq();
+                List<Message> combined = new ArrayList<>(messages);
+                combined.addAll(messageArchiveService.findBefore(chatId, archiveBeforeSeq, pageSize - messages.size()));
+                messages = combined;
+            }
+            totalElements += messageArchiveService.countBefore(chatId, beforeSeq);
+        }
+
+        List<MessageResponse> messageResponses = messageMapper.toMessageResponseList(messages.reversed());
 
         return PageResponse.builder()
                 .pageNumber(pageNumber)
                 .pageSize(pageSize)
-                .totalElements(messagePage.getTotalElements())
-                .totalPages(messagePage.getTotalPages())
+                .totalElements(totalElements)
+                .totalPages((int) ((totalElements + pageSize - 1) / pageSize))
                 .content(messageResponses)
                 .build();
     }
 
+    /**
+    A history page read from message buckets, or null when the buckets can't tell the whole page:
+    messages written before buckets were enabled and the start of the chat are only complete in the messages collection.
+    **/
+    private PageResponse<?> getBucketedMessages(String chatId, long beforeSeq, int pageSize) {
+        List<Message> messages = messageBucketStore.findBefore(chatId, beforeSeq, pageSize);
+        if (messages.size() < pageSize || messages.getLast().getSeq() <= 1) {
+            return null;
+        }
+
+        // Approximate: an upper bound from the sequence numbers instead of a count query,
+        // expired messages and failed inserts leave gaps that are still counted
+        long totalElements = beforeSeq - 1;
+
+        return PageResponse.builder()
+                .pageNumber(1)
+                .pageSize(pageSize)
+                .totalElements(totalElements)
+                .totalPages((int) ((totalElements + pageSize - 1) / pageSize))
+                .content(messageMapper.toMessageResponseList(messages.reversed()))
+                .build();
+    }
+
     @Override
     @Transactional
     public void markLastMessageAsSeen(String chatId) {
@@ -759,6 +909,13 @@ public class ChatServiceImpl implements ChatService {
         Chat chat = chatRepository.findById(typingEventRequest.getChatId())
                 .orElseThrow(() -> new ResourceNotFoundException("Chat not found"));
 
+        Set<String> blockedUserIds = blockListCache.getBlockedUserIds(typingEventRequest.getUserId());
+        // A blocked private chat shows no typing indicator in either direction
+        if (!Boolean.TRUE.equals(chat.getIsGroupChat())
+                && chat.getParticipants().stream().anyMatch(blockedUserIds::contains)) {
+            return;
+        }
+
         TypingEventResponse typingEventResponse = TypingEventResponse.builder()
                 .userId(typingEventRequest.getUserId())
                 .chatId(typingEventRequest.getChatId())
@@ -772,9 +929,9 @@ public class ChatServiceImpl implements ChatService {
                 webSocketResponse
         );
 
-        // Notify all other participants (excluding sender)
+        // Notify all other participants (excluding sender and users with a block between them)
         for (String participantId : chat.getParticipants()) {
-            if (!participantId.equals(typingEventRequest.getUserId())) {
+            if (!participantId.equals(typingEventRequest.getUserId()) && !blockedUserIds.contains(participantId)) {
                 notificationService.sendNotification(
                         WebSocketDestination.USER_NOTIFICATION_PREFIX + participantId,
                         webSocketResponse
@@ -790,6 +947,7 @@ public class ChatServiceImpl implements ChatService {
         chat.setLastMessageContent(lastMessage.getContent());
         chat.setLastMessageType(lastMessage.getMessageType());
         chat.setLastMessageTime(lastMessage.getCreatedAt());
+        chat.setLastMessageSeq(lastMessage.getSeq());
         if (chat.getIsLastMessageDeleted() != null && chat.getIsLastMessageDeleted()) {
             chat.setIsLastMessageDeleted(false);
         }
@@ -798,7 +956,62 @@ public class ChatServiceImpl implements ChatService {
             chat.setLastMessageSenderName(sender.getFullName());
         }
 
-        chatRepository.save(chat);
+        if (lastMessage.getSeq() == null) {
+            chatRepository.save(chat);
+            return;
+        }
+
+        mongoTemplate.updateFirst(newerLastMessageQuery(chat.getId(), lastMessage.getSeq()), lastMessageUpdate(chat, sender), Chat.class);
+    }
+
+    @Async
+    @Override
+    public void updateChatLastMessages(Map<String, Chat> chatsById, List<Message> lastMessages, User sender) {
+        if (lastMessages.isEmpty()) {
+            return;
+        }
+
+        // One round trip for all chats, each update keeps the same newer-message-only condition
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Chat.class);
+        for (Message lastMessage : lastMessages) {
+            Chat chat = chatsById.get(lastMessage.getChatId());
+            chat.setLastMessageId(lastMessage.getId());
+            chat.setLastMessageContent(lastMessage.getContent());
+            chat.setLastMessageType(lastMessage.getMessageType());
+            chat.setLastMessageTime(lastMessage.getCreatedAt());
+            chat.setLastMessageSeq(lastMessage.getSeq());
+            chat.setIsLastMessageDeleted(false);
+            chat.setLastMessageSenderId(sender.getId());
+            chat.setLastMessageSenderName(sender.getFullName());
+
+            bulkOperations.updateOne(newerLastMessageQuery(chat.getId(), lastMessage.getSeq()), lastMessageUpdate(chat, sender));
+        }
+        bulkOperations.execute();
+    }
+
+    // Concurrent sends finish in any order, only a newer message may replace the stored last message
+    private Query newerLastMessageQuery(String chatId, Long seq) {
+        return new Query(new Criteria().andOperator(
+                Criteria.where("_id").is(chatId),
+                new Criteria().orOperator(
+                        Criteria.where("lastMessageSeq").lt(seq),
+                        Criteria.where("lastMessageSeq").is(null))));
+    }
+
+    private Update lastMessageUpdate(Chat chat, User sender) {
+        Update update = new Update()
+                .set("lastMessageId", chat.getLastMessageId())
+                .set("lastMessageContent", chat.getLastMessageContent())
+                .set("lastMessageType", chat.getLastMessageType())
+                .set("lastMessageTime", chat.getLastMessageTime())
+                .set("lastMessageSeq", chat.getLastMessageSeq())
+                .set("isLastMessageDeleted", chat.getIsLastMessageDeleted())
+                .set("updatedAt", Instant.now());
+        if (sender != null) {
+            update.set("lastMessageSenderId", sender.getId())
+                    .set("lastMessageSenderName", sender.getFullName());
+        }
+        return update;
     }
 
     private void saveChatJoinInfo(Chat chat, CustomUserDetails currentUser, List<String> participantIds) {
@@ -828,7 +1041,8 @@ public class ChatServiceImpl implements ChatService {
     }
 
     private void notifyParticipantsAboutNewChat(Chat chat, CustomUserDetails currentUser, ChatResponse response) {
-        WebSocketResponse<ChatResponse> socketResponse = new WebSocketResponse<>(ChatEvent.NEW_CHAT, response);
+        WebSocketResponse<ChatResponse> socketResponse =
+                new WebSocketResponse<>(ChatEvent.NEW_CHAT, chatMapper.toBroadcastChatResponse(response));
         for (String participantId : chat.getParticipants()) {
             if (!participantId.equals(currentUser.getUser().getId())) {
                 notificationService.sendNotification(
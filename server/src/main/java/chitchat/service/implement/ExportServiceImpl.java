@@ -0,0 +1,258 @@
+package chitchat.service.implement;
+
+import chitchat.dto.response.message.MessageExportResponse;
+import chitchat.exception.NoPermissionException;
+import chitchat.exception.ResourceNotFoundException;
+import chitchat.model.Chat;
+import chitchat.model.Message;
+import chitchat.model.User;
+import chitchat.model.enumeration.ExportFormat;
+import chitchat.repository.ChatRepository;
+import chitchat.repository.UserRepository;
+import chitchat.security.service.CurrentUserService;
+import chitchat.service.MessageArchiveService;
+import chitchat.service.MinioService;
+import chitchat.service.interfaces.ExportService;
+import chitchat.utils.MediaUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+Full chat exports written straight from a Mongo cursor to the response: archived segments first, then the hot collection,
+one message at a time in sequence order. Nothing is collected, so memory use doesn't depend on the size of the chat
+and a slow client simply slows the cursor down. Exports cover a sequence range, a broken download resumes after
+the last sequence number it received.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportServiceImpl implements ExportService {
+
+    private static final int CURSOR_BATCH_SIZE = 500;
+    private static final int FLUSH_EVERY_LINES = 500;
+    // Messages per NDJSON entry of a ZIP export, the media of an entry follows it
+    private static final int ZIP_ENTRY_MESSAGES = 1000;
+
+    private final ChatRepository chatRepository;
+    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final MessageArchiveService messageArchiveService;
+    private final MinioService minioService;
+    private final MediaUtils mediaUtils;
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public ChatExport prepareChatExport(String chatId, Long fromSeq, Long toSeq) {
+        Chat chat = chatRepository.findById(chatId)
+                .orElseThrow(() -> new ResourceNotFoundException("Chat not found"));
+
+        if (!chat.getParticipants().contains(currentUserService.getCurrentUser().getUser().getId())) {
+            throw new NoPermissionException("You do not have permission to export this chat");
+        }
+
+        long lastSeq = chat.getLastMessageSeq() != null ? chat.getLastMessageSeq() : 0;
+        long from = fromSeq != null ? fromSeq : 1;
+        long to = toSeq != null ? Math.min(toSeq, lastSeq) : lastSeq;
+        if (from < 1 || (fromSeq != null && from > to)) {
+            throw new IllegalArgumentException("Requested range is outside the chat history (1-" + lastSeq + ")");
+        }
+
+        // Only current participants are named, earlier members are exported with their id
+        Map<String, String> senderNames = userRepository.findAllById(chat.getParticipants()).stream()
+                .filter(user -> user.getFullName() != null)
+                .collect(Collectors.toMap(User::getId, User::getFullName));
+
+        return new ChatExport(chatId, from, to, lastSeq, senderNames);
+    }
+
+    @Override
+    public void writeChatExport(ChatExport chatExport, ExportFormat format, OutputStream output) throws IOException {
+        try {
+            if (format == ExportFormat.ZIP) {
+                writeZip(chatExport, output);
+            } else {
+                writeNdjson(chatExport, output);
+            }
+        } catch (UncheckedIOException e) {
+            // Usually the client went away, the cursor is closed on the way out
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(ChatExport chatExport, OutputStream output) throws IOException {
+        int[] lines = {0};
+        forEachMessage(chatExport, message -> {
+            writeLine(output, toExportResponse(chatExport, message, message.getMediaUrl()));
+            if (++lines[0] % FLUSH_EVERY_LINES == 0) {
+                flush(output);
+            }
+        });
+        output.flush();
+    }
+
+    private void writeZip(ChatExport chatExport, OutputStream output) throws IOException {
+        ZipExportWriter writer = new ZipExportWriter(new ZipOutputStream(output), chatExport);
+        forEachMessage(chatExport, writer::add);
+        writer.finish();
+    }
+
+    // Messages in sequence order: those stored before sequencing, archived segments, then the messages collection
+    private void forEachMessage(ChatExport chatExport, Consumer<Message> consumer) {
+        if (chatExport.fromSeq() <= 1) {
+            Query unsequenced = new Query(Criteria.where("chatId").is(chatExport.chatId()).and("seq").is(null))
+                    .with(Sort.by(Sort.Direction.ASC, "createdAt"))
+                    .cursorBatchSize(CURSOR_BATCH_SIZE);
+            stream(unsequenced, consumer);
+        }
+
+        long afterSeq = chatExport.fromSeq() - 1;
+        messageArchiveService.forEachArchived(chatExport.chatId(), afterSeq, chatExport.toSeq(), consumer);
+
+        // A message can briefly exist in both places while it is being archived, the segment wins
+        long hotAfterSeq = Math.max(afterSeq, messageArchiveService.getLastArchivedSeq(chatExport.chatId()));
+        Query sequenced = new Query(Criteria.where("chatId").is(chatExport.chatId())
+                .and("seq").gt(hotAfterSeq).lte(chatExport.toSeq()))
+                .with(Sort.by(Sort.Direction.ASC, "seq"))
+                .cursorBatchSize(CURSOR_BATCH_SIZE);
+        stream(sequenced, consumer);
+    }
+
+    private void stream(Query query, Consumer<Message> consumer) {
+        try (Stream<Message> messages = mongoTemplate.stream(query, Message.class)) {
+            messages.forEach(consumer);
+        }
+    }
+
+    private MessageExportResponse toExportResponse(ChatExport chatExport, Message message, String mediaUrl) {
+        boolean isDeleted = isDeleted(message);
+        return MessageExportResponse.builder()
+                .id(message.getId())
+                .seq(message.getSeq())
+                .senderId(message.getSenderId())
+                .senderName(message.getSenderId() != null ? chatExport.senderNames().get(message.getSenderId()) : null)
+                .messageType(message.getMessageType())
+                // Deleted messages keep their place in the history but not their content
+                .content(isDeleted ? null : message.getContent())
+                .mediaUrl(isDeleted ? null : mediaUrl)
+                .replyToMessageId(message.getReplyToMessageId())
+                .isEdited(message.getIsEdited())
+                .isDeleted(isDeleted)
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+
+    // Like the message mapper: expired messages the TTL monitor hasn't removed yet read as deleted
+    private boolean isDeleted(Message message) {
+        return Boolean.TRUE.equals(message.getIsDeleted())
+                || (message.getExpiresAt() != null && message.getExpiresAt().isBefore(Instant.now()));
+    }
+
+    private void writeLine(OutputStream output, Object value) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(value));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(OutputStream output) {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Messages go into numbered NDJSON entries, each followed by the media files its messages reference
+    private class ZipExportWriter {
+
+        private final ZipOutputStream zip;
+        private final ChatExport chatExport;
+        private final List<Message> pendingMedia = new ArrayList<>();
+        private int entryMessages = 0;
+        private int entries = 0;
+
+        private ZipExportWriter(ZipOutputStream zip, ChatExport chatExport) {
+            this.zip = zip;
+            this.chatExport = chatExport;
+        }
+
+        private void add(Message message) {
+            try {
+                if (entryMessages == 0) {
+                    zip.putNextEntry(new ZipEntry("messages/%06d.ndjson".formatted(++entries)));
+                }
+
+                String mediaUrl = message.getMediaUrl();
+                boolean storedMedia = mediaUrl != null && !mediaUrl.isEmpty() && !mediaUtils.isExternalUrl(mediaUrl)
+                        && !isDeleted(message);
+                if (storedMedia) {
+                    mediaUrl = mediaEntryName(message);
+                    pendingMedia.add(message);
+                }
+                writeLine(zip, toExportResponse(chatExport, message, mediaUrl));
+
+                if (++entryMessages == ZIP_ENTRY_MESSAGES) {
+                    closeEntry();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            closeEntry();
+            zip.finish();
+            zip.flush();
+        }
+
+        private void closeEntry() throws IOException {
+            if (entryMessages == 0) {
+                return;
+            }
+            zip.closeEntry();
+            entryMessages = 0;
+
+            for (Message message : pendingMedia) {
+                try (InputStream media = minioService.openFile(message.getMediaUrl())) {
+                    zip.putNextEntry(new ZipEntry(mediaEntryName(message)));
+                    media.transferTo(zip);
+                    zip.closeEntry();
+                } catch (IOException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // A missing file leaves a dangling path in the export rather than failing the whole download
+                    log.warn("Could not export media {} of message {}: {}", message.getMediaUrl(), message.getId(), e.getMessage());
+                }
+            }
+            pendingMedia.clear();
+            zip.flush();
+        }
+
+        // Prefixed with the message id, forwarded messages share their file
+        private String mediaEntryName(Message message) {
+            String mediaUrl = message.getMediaUrl();
+            return "media/" + message.getId() + "-" + mediaUrl.substring(mediaUrl.lastIndexOf('/') + 1);
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package chitchat.service.implement;
+
+import chitchat.dto.request.admin.ImportFriendshipRequest;
+import chitchat.dto.request.admin.ImportUserRequest;
+import chitchat.dto.response.admin.ImportBatchResponse;
+import chitchat.dto.response.admin.ImportErrorResponse;
+import chitchat.model.User;
+import chitchat.model.enumeration.ImportFormat;
+import chitchat.model.enumeration.RoleName;
+import chitchat.repository.UserRepository;
+import chitchat.service.UserGraphProjectionService;
+import chitchat.service.UserNameIndex;
+import chitchat.service.interfaces.ImportService;
+import chitchat.service.interfaces.UserNodeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportServiceImpl implements ImportService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
+    private static final String CREATE_USER_NODES_QUERY = """
+        UNWIND $rows AS row
+        MERGE (u:User {userId: row.userId})
+        ON CREATE SET u.id = randomUUID()
+        SET u.fullName = row.fullName,
+            u.bio = row.bio
+        """;
+
+    // Returns the line of every row that produced a friendship, the others reference a missing node or a block
+    private static final String CREATE_FRIENDSHIPS_QUERY = """
+        UNWIND $rows AS row
+        MATCH (a:User {userId: row.a})
+        MATCH (b:User {userId: row.b})
+        WHERE NOT EXISTS { (a)-[:BLOCKED]-(b) }
+        MERGE (a)-[:FRIEND]-(b)
+        WITH a, b, row
+        OPTIONAL MATCH (a)-[p:PENDING_REQUEST]-(b)
+        DELETE p
+        RETURN DISTINCT row.line AS line
+        """;
+
+    private final UserRepository userRepository;
+    private final UserNodeService userNodeService;
+    private final UserNameIndex userNameIndex;
+    private final UserGraphProjectionService userGraphProjectionService;
+    private final MongoTemplate mongoTemplate;
+    private final Neo4jClient neo4jClient;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+
+    private record ImportRow<T>(long line, T value) {}
+
+    @Override
+    public void importUsers(InputStream input, ImportFormat format, Consumer<ImportBatchResponse> progressListener) throws IOException {
+        readInBatches(input, format, ImportUserRequest.class, this::importUserBatch, progressListener);
+    }
+
+    @Override
+    public void importFriendships(InputStream input, ImportFormat format, Consumer<ImportBatchResponse> progressListener) throws IOException {
+        readInBatches(input, format, ImportFriendshipRequest.class, this::importFriendshipBatch, progressListener);
+    }
+
+    private List<ImportErrorResponse> importUserBatch(List<ImportRow<ImportUserRequest>> rows) {
+        List<ImportErrorResponse> errors = new ArrayList<>();
+        List<ImportRow<ImportUserRequest>> validRows = new ArrayList<>();
+
+        List<ImportRow<ImportUserRequest>> checkedRows = new ArrayList<>();
+        for (ImportRow<ImportUserRequest> row : rows) {
+            String error = validateUser(row.value());
+            if (error != null) {
+                errors.add(new ImportErrorResponse(row.line(), error));
+            } else {
+                checkedRows.add(row);
+            }
+        }
+
+        // Taken names are rejected before hashing, the unique indexes only catch concurrent registrations
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        checkedRows.forEach(row -> {
+            usernames.add(row.value().getUsername().trim());
+            emails.add(row.value().getEmail().trim());
+        });
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        if (!checkedRows.isEmpty()) {
+            userRepository.findAllByUsernameInOrEmailIn(usernames, emails).forEach(user -> {
+                takenUsernames.add(user.getUsername());
+                takenEmails.add(user.getEmail());
+            });
+        }
+
+        for (ImportRow<ImportUserRequest> row : checkedRows) {
+            String username = row.value().getUsername().trim();
+            String email = row.value().getEmail().trim();
+            if (takenUsernames.contains(username)) {
+                errors.add(new ImportErrorResponse(row.line(), "Username is already in use"));
+            } else if (takenEmails.contains(email)) {
+                errors.add(new ImportErrorResponse(row.line(), "Email is already in use"));
+            } else {
+                // A later row of the same batch repeating either name is rejected as well
+                takenUsernames.add(username);
+                takenEmails.add(email);
+                validRows.add(row);
+            }
+        }
+
+        if (validRows.isEmpty()) {
+            return errors;
+        }
+
+        // BCrypt dominates the cost of a batch, so passwords are hashed in parallel
+        List<User> users = validRows.parallelStream()
+                .map(row -> toUser(row.value()))
+                .toList();
+
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every other document of the batch is still inserted
+            for (BulkWriteError writeError : e.getErrors()) {
+                failedIndexes.add(writeError.getIndex());
+                errors.add(new ImportErrorResponse(
+                        validRows.get(writeError.getIndex()).line(),
+                        writeError.getCode() == DUPLICATE_KEY_ERROR
+                                ? "Username or email is already in use"
+                                : writeError.getMessage()
+                ));
+            }
+        }
+
+        List<User> insertedUsers = new ArrayList<>(users.size() - failedIndexes.size());
+        for (int i = 0; i < users.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                insertedUsers.add(users.get(i));
+            }
+        }
+
+        // With the projection enabled the nodes are created from the users change stream
+        if (!insertedUsers.isEmpty() && !userGraphProjectionService.isEnabled()) {
+            List<Map<String, Object>> nodeRows = insertedUsers.stream()
+                    .map(user -> {
+                        Map<String, Object> nodeRow = new HashMap<>();
+                        nodeRow.put("userId", user.getId());
+                        nodeRow.put("fullName", user.getFullName());
+                        nodeRow.put("bio", user.getBio());
+                        return nodeRow;
+                    })
+                    .toList();
+            neo4jClient.query(CREATE_USER_NODES_QUERY).bind(nodeRows).to("rows").run();
+        }
+
+        userNameIndex.putAll(insertedUsers);
+
+        return errors;
+    }
+
+    private List<ImportErrorResponse> importFriendshipBatch(List<ImportRow<ImportFriendshipRequest>> rows) {
+        List<ImportErrorResponse> errors = new ArrayList<>();
+
+        // Resolve every username or email of the batch in one query
+        Set<String> identifiers = new HashSet<>();
+        rows.forEach(row -> {
+            if (row.value().getUser() != null) identifiers.add(row.value().getUser().trim());
+            if (row.value().getFriend() != null) identifiers.add(row.value().getFriend().trim());
+        });
+
+        Map<String, String> userIdsByIdentifier = new HashMap<>();
+        userRepository.findAllByUsernameInOrEmailIn(identifiers, identifiers).forEach(user -> {
+            userIdsByIdentifier.put(user.getUsername(), user.getId());
+            userIdsByIdentifier.put(user.getEmail(), user.getId());
+        });
+
+        List<Map<String, Object>> edgeRows = new ArrayList<>();
+
+        for (ImportRow<ImportFriendshipRequest> row : rows) {
+            String userId = resolveUserId(userIdsByIdentifier, row.value().getUser());
+            String friendId = resolveUserId(userIdsByIdentifier, row.value().getFriend());
+
+            if (userId == null || friendId == null) {
+                errors.add(new ImportErrorResponse(row.line(), "User not found: "
+                        + (userId == null ? row.value().getUser() : row.value().getFriend())));
+            } else if (userId.equals(friendId)) {
+                errors.add(new ImportErrorResponse(row.line(), "A user cannot be friends with themselves"));
+            } else {
+                edgeRows.add(Map.of("line", row.line(), "a", userId, "b", friendId));
+            }
+        }
+
+        if (edgeRows.isEmpty()) {
+            return errors;
+        }
+
+        Set<Long> createdLines = new HashSet<>(neo4jClient.query(CREATE_FRIENDSHIPS_QUERY)
+                .bind(edgeRows).to("rows")
+                .fetchAs(Long.class)
+                .mappedBy((typeSystem, result) -> result.get("line").asLong())
+                .all());
+
+        Set<String> affectedUserIds = new HashSet<>();
+        for (Map<String, Object> edgeRow : edgeRows) {
+            long line = (long) edgeRow.get("line");
+            if (createdLines.contains(line)) {
+                affectedUserIds.add((String) edgeRow.get("a"));
+                affectedUserIds.add((String) edgeRow.get("b"));
+            } else {
+                errors.add(new ImportErrorResponse(line, "User has no graph node yet or the users block each other"));
+            }
+        }
+
+        userNodeService.invalidateRelationships(affectedUserIds);
+
+        return errors;
+    }
+
+    /**
+    Read the input line by line and hand it to the batch handler BATCH_SIZE records at a time,
+    so memory stays bounded by one batch whatever the size of the upload.
+    Lines that cannot be parsed are reported as errors of the batch they belong to.
+    **/
+    private <T> void readInBatches(InputStream input,
+                                   ImportFormat format,
+                                   Class<T> type,
+                                   Function<List<ImportRow<T>>, List<ImportErrorResponse>> batchHandler,
+                                   Consumer<ImportBatchResponse> progressListener) throws IOException {
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        List<String> csvHeader = null;
+        if (format == ImportFormat.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IllegalArgumentException("CSV input must start with a header line");
+            }
+            csvHeader = parseCsvLine(stripBom(headerLine));
+        }
+
+        List<ImportRow<T>> batch = new ArrayList<>(BATCH_SIZE);
+        List<ImportErrorResponse> parseErrors = new ArrayList<>();
+        long lineNumber = format == ImportFormat.CSV ? 1 : 0;
+        int batchNumber = 0;
+        long[] totals = new long[3];
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                T value = format == ImportFormat.CSV
+                        ? objectMapper.convertValue(toCsvRecord(csvHeader, parseCsvLine(line)), type)
+                        : objectMapper.readValue(lineNumber == 1 ? stripBom(line) : line, type);
+                batch.add(new ImportRow<>(lineNumber, value));
+            } catch (Exception e) {
+                parseErrors.add(new ImportErrorResponse(lineNumber, "Malformed record: " + e.getMessage()));
+            }
+
+            if (batch.size() + parseErrors.size() >= BATCH_SIZE) {
+                reportBatch(++batchNumber, batch, parseErrors, batchHandler, totals, progressListener);
+                batch = new ArrayList<>(BATCH_SIZE);
+                parseErrors = new ArrayList<>();
+            }
+        }
+
+        if (!batch.isEmpty() || !parseErrors.isEmpty()) {
+            reportBatch(++batchNumber, batch, parseErrors, batchHandler, totals, progressListener);
+        }
+
+        progressListener.accept(ImportBatchResponse.builder()
+                .batchNumber(batchNumber)
+                .totalProcessed(totals[0])
+                .totalImported(totals[1])
+                .totalFailed(totals[2])
+                .completed(true)
+                .build());
+
+        log.info("Import of {} finished: {} processed, {} imported, {} failed", type.getSimpleName(), totals[0], totals[1], totals[2]);
+    }
+
+    private <T> void reportBatch(int batchNumber,
+                                 List<ImportRow<T>> batch,
+                                 List<ImportErrorResponse> parseErrors,
+                                 Function<List<ImportRow<T>>, List<ImportErrorResponse>> batchHandler,
+                                 long[] totals,
+                                 Consumer<ImportBatchResponse> progressListener) {
+
+        List<ImportErrorResponse> errors = new ArrayList<>(parseErrors);
+        if (!batch.isEmpty()) {
+            errors.addAll(batchHandler.apply(batch));
+        }
+        errors.sort(Comparator.comparingLong(ImportErrorResponse::getLine));
+
+        int processed = batch.size() + parseErrors.size();
+        int imported = processed - errors.size();
+        totals[0] += processed;
+        totals[1] += imported;
+        totals[2] += errors.size();
+
+        progressListener.accept(ImportBatchResponse.builder()
+                .batchNumber(batchNumber)
+                .processed(processed)
+                .imported(imported)
+                .failed(errors.size())
+                .totalProcessed(totals[0])
+                .totalImported(totals[1])
+                .totalFailed(totals[2])
+                .errors(errors.isEmpty() ? null : errors)
+                .build());
+    }
+
+    private String validateUser(ImportUserRequest request) {
+        if (request.getUsername() == null || request.getUsername().trim().length() < 8) {
+            return "Username must be at least 8 characters";
+        }
+        if (request.getEmail() == null || !request.getEmail().contains("@")) {
+            return "Must be a valid email";
+        }
+        if (request.getPassword() != null && request.getPassword().length() < 8) {
+            return "Password must be at least 8 characters";
+        }
+        return null;
+    }
+
+    private User toUser(ImportUserRequest request) {
+        String fullName = request.getFullName() != null && !request.getFullName().isBlank()
+                ? request.getFullName().trim()
+                : null;
+
+        User user = User.builder()
+                // Assigned up front so the graph nodes can be written without reading the users back
+                .id(new ObjectId().toHexString())
+                .username(request.getUsername().trim())
+                .email(request.getEmail().trim())
+                // Without a password the account gets an unguessable one and has to be claimed via password reset
+                .password(passwordEncoder.encode(request.getPassword() != null ? request.getPassword() : UUID.randomUUID().toString()))
+                .fullName(fullName)
+                .bio(request.getBio())
+                .profileCompleted(fullName != null)
+                .role(RoleName.USER)
+                .build();
+        // Auditing treats documents with a preset id as existing ones and would leave this empty
+        user.setCreatedAt(Instant.now());
+        return user;
+    }
+
+    private String resolveUserId(Map<String, String> userIdsByIdentifier, String identifier) {
+        return identifier != null ? userIdsByIdentifier.get(identifier.trim()) : null;
+    }
+
+    private Map<String, String> toCsvRecord(List<String> header, List<String> values) {
+        if (values.size() > header.size()) {
+            throw new IllegalArgumentException("expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            record.put(header.get(i).trim(), value.isEmpty() ? null : value);
+        }
+        return record;
+    }
+
+    // RFC 4180 fields on a single line: commas separate fields, double quotes enclose them and "" escapes a quote
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+}
@@ -1,15 +1,20 @@
 package chitchat.service.implement;
 
+import chitchat.constant.CacheConstant;
 import chitchat.constant.WebSocketDestination;
+import chitchat.dto.request.message.BatchSendMessageRequest;
 import chitchat.dto.request.message.SendMessageRequest;
 import chitchat.dto.request.message.UpdateMessageRequest;
 import chitchat.dto.response.message.MessageResponse;
+import chitchat.dto.response.message.MessageStatusResponse;
 import chitchat.dto.response.websocket.WebSocketResponse;
+import chitchat.exception.DataInUseException;
 import chitchat.exception.NoPermissionException;
 import chitchat.exception.ResourceNotFoundException;
 import chitchat.mapper.MessageMapper;
 import chitchat.model.Chat;
 import chitchat.model.Message;
+import chitchat.model.User;
 import chitchat.model.enumeration.ChatEvent;
 import chitchat.model.enumeration.MessageType;
 import chitchat.model.enumeration.SystemMessageAction;
@@ -18,26 +23,47 @@ import chitchat.model.security.CustomUserDetails;
 import chitchat.repository.ChatRepository;
 import chitchat.repository.MessageRepository;
 import chitchat.security.service.CurrentUserService;
+import chitchat.service.BlockListCache;
+import chitchat.service.MessageGroupCommitWriter;
 import chitchat.service.MinioService;
+import chitchat.service.interfaces.AffinityService;
 import chitchat.service.interfaces.ChatService;
 import chitchat.service.interfaces.MessageService;
 import chitchat.service.interfaces.NotificationService;
+import chitchat.service.interfaces.NotificationService.Notification;
 import chitchat.utils.SystemMessageUtils;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class MessageServiceImpl implements MessageService {
 
+    private static final String PENDING_SEND = "pending";
+    private static final int DEDUP_WAIT_ATTEMPTS = 50;
+    private static final Duration DEDUP_WAIT_INTERVAL = Duration.ofMillis(100);
+    private static final int MAX_BATCH_SEND_CHATS = 50;
+    // Deletes the key only while it still holds the expected value, a newer attempt's value is left alone
+    private static final RedisScript<Long> RELEASE_DEDUP_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
     private final SimpMessagingTemplate messagingTemplate;
     private final MessageRepository messageRepository;
     private final ChatRepository chatRepository;
@@ -47,10 +73,57 @@ public class MessageServiceImpl implements MessageService {
     private final NotificationService notificationService;
     private final MinioService minioService;
     private final SystemMessageUtils systemMessageUtils;
-
+    private final AffinityService affinityService;
+    private final BlockListCache blockListCache;
+    private final MessageGroupCommitWriter messageGroupCommitWriter;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${messaging.low-latency.enabled:false}")
+    private boolean lowLatencyEnabled;
+
+    /**
+    Sends with a client message id are deduplicated: a retry of a send that already went through
+    gets the original message back instead of storing and delivering it again.
+    **/
     @Override
     @Transactional
     public MessageResponse sendMessage(SendMessageRequest sendMessageRequest, MultipartFile mediaFile) throws Exception {
+        return sendMessage(sendMessageRequest, mediaFile, lowLatencyEnabled);
+    }
+
+    // For senders that act on the result (scheduled sends): returns only once the message is stored, also in low latency mode
+    @Override
+    @Transactional
+    public MessageResponse sendStoredMessage(SendMessageRequest sendMessageRequest) throws Exception {
+        return sendMessage(sendMessageRequest, null, false);
+    }
+
+    private MessageResponse sendMessage(SendMessageRequest sendMessageRequest, MultipartFile mediaFile, boolean allowPending) throws Exception {
+        String clientMessageId = sendMessageRequest.getClientMessageId();
+        if (clientMessageId == null || clientMessageId.isBlank()) {
+            return deliverMessage(sendMessageRequest, mediaFile, allowPending);
+        }
+
+        String currentUserId = currentUserService.getCurrentUser().getUser().getId();
+        String dedupKey = generateDedupKey(currentUserId, clientMessageId);
+
+        Boolean firstAttempt = redisTemplate.opsForValue()
+                .setIfAbsent(dedupKey, PENDING_SEND, CacheConstant.MESSAGE_DEDUP_TTL);
+        if (!Boolean.TRUE.equals(firstAttempt)) {
+            return findOriginalMessage(dedupKey, sendMessageRequest, mediaFile, allowPending);
+        }
+
+        try {
+            // The key is pointed at the message as soon as it is stored (or queued in low latency mode)
+            return deliverMessage(sendMessageRequest, mediaFile, allowPending);
+        } catch (Exception e) {
+            // Only frees a key still marked pending, a failure after the insert keeps it so the retry returns that message
+            releasePendingSend(currentUserId, clientMessageId);
+            throw e;
+        }
+    }
+
+    private MessageResponse deliverMessage(SendMessageRequest sendMessageRequest, MultipartFile mediaFile, boolean allowPending) throws Exception {
 
         Chat chat = chatRepository.findById(sendMessageRequest.getChatId())
                 .orElseThrow(() -> new ResourceNotFoundException("Chat not found"));
@@ -62,6 +135,9 @@ public class MessageServiceImpl implements MessageService {
             throw new NoPermissionException("You are not a participant of this chat");
         }
 
+        Set<String> blockedUserIds = blockListCache.getBlockedUserIds(currentUserId);
+        checkNotBlocked(chat, currentUserId, blockedUserIds);
+
         Message replyToMessage = null;
         if (sendMessageRequest.getReplyToMessageId() != null) {
             replyToMessage = messageRepository.findById(sendMessageRequest.getReplyToMessageId())
@@ -83,6 +159,7 @@ public class MessageServiceImpl implements MessageService {
                 .replyToMessageMediaUrl(replyToMessage != null ? replyToMessage.getMediaUrl() : null)
                 .isReplyMessageEdited(replyToMessage != null ? replyToMessage.getIsEdited() : null)
                 .isReplyMessageDeleted(replyToMessage != null ? false : null)
+                .clientMessageId(sendMessageRequest.getClientMessageId())
                 .build();
 
         if (mediaFile != null) {
@@ -97,7 +174,15 @@ public class MessageServiceImpl implements MessageService {
         else {
             message.setMessageType(MessageType.TEXT);
         }
-        messageRepository.save(message);
+
+        applyExpiry(chat, message);
+
+        if (allowPending && message.getMessageType() == MessageType.TEXT) {
+            return sendPending(chat, message, currentUser.getUser(), blockedUserIds);
+        }
+
+        messageGroupCommitWriter.insert(message);
+        recordSentMessage(message);
 
         MessageResponse messageResponse = messageMapper.toMessageResponse(message);
         messageResponse.setSenderName(currentUser.getUser().getFullName());
@@ -112,17 +197,142 @@ public class MessageServiceImpl implements MessageService {
 
         chatService.updateChatLastMessage(chat, message, currentUser.getUser());
 
-        // Send notification to all participants
-        for (String participantId : chat.getParticipants()) {
-            if (!participantId.equals(currentUserId)) {
-                notificationService.sendNotification(
-                        WebSocketDestination.USER_NOTIFICATION_PREFIX + participantId,
-                        webSocketResponse
-                );
+        affinityService.recordMessage(chat, currentUserId);
+
+        notifyParticipants(chat, currentUserId, blockedUserIds, webSocketResponse);
+
+        return messageResponse;
+    }
+
+    /**
+    Sends one message to many chats (forwarding, announcements) with a fixed number of round trips:
+    one query resolves all target chats and the membership, one insert stores every copy,
+    one bulk write updates the chat summaries and all notifications go out as a single fan-out task.
+    **/
+    @Override
+    @Transactional
+    public List<MessageResponse> sendMessageToChats(BatchSendMessageRequest batchSendMessageRequest) throws Exception {
+        List<String> chatIds = batchSendMessageRequest.getChatIds() != null
+                ? batchSendMessageRequest.getChatIds().stream().distinct().toList()
+                : List.of();
+        if (chatIds.isEmpty() || chatIds.size() > MAX_BATCH_SEND_CHATS) {
+            throw new IllegalArgumentException("Number of chats must be between 1 and " + MAX_BATCH_SEND_CHATS);
+        }
+
+        CustomUserDetails currentUser = currentUserService.getCurrentUser();
+        User sender = currentUser.getUser();
+
+        Map<String, Chat> chatsById = chatRepository.findAllByIdInAndParticipantId(chatIds, sender.getId()).stream()
+                .collect(Collectors.toMap(Chat::getId, Function.identity()));
+        // Missing chats and chats without the sender look the same, neither reveals whether the chat exists
+        if (chatsById.size() != chatIds.size()) {
+            throw new NoPermissionException("You are not a participant of all these chats");
+        }
+
+        Set<String> blockedUserIds = blockListCache.getBlockedUserIds(sender.getId());
+        for (Chat chat : chatsById.values()) {
+            checkNotBlocked(chat, sender.getId(), blockedUserIds);
+        }
+
+        Message template = createBatchMessageTemplate(batchSendMessageRequest, sender.getId());
+
+        List<Message> messages = new ArrayList<>(chatIds.size());
+        for (String chatId : chatIds) {
+            Message message = Message.builder()
+                    .chatId(chatId)
+                    .senderId(sender.getId())
+                    .content(template.getContent())
+                    .mediaUrl(template.getMediaUrl())
+                    .messageType(template.getMessageType())
+                    .build();
+            applyExpiry(chatsById.get(chatId), message);
+            // Ids, sequence numbers and timestamps are known before the insert, the copies are sent without reading them back
+            messageGroupCommitWriter.assignIdentity(message);
+            messages.add(message);
+        }
+
+        messageRepository.insert(messages);
+
+        List<MessageResponse> messageResponses = new ArrayList<>(messages.size());
+        List<Notification> notifications = new ArrayList<>();
+        for (Message message : messages) {
+            Chat chat = chatsById.get(message.getChatId());
+
+            MessageResponse messageResponse = messageMapper.toMessageResponse(message);
+            messageResponse.setSenderName(sender.getFullName());
+            messageResponses.add(messageResponse);
+
+            WebSocketResponse<MessageResponse> webSocketResponse =
+                    new WebSocketResponse<>(ChatEvent.NEW_MESSAGE, messageResponse);
+
+            messagingTemplate.convertAndSend(WebSocketDestination.CHAT_TOPIC_PREFIX + chat.getId(), webSocketResponse);
+
+            for (String participantId : chat.getParticipants()) {
+                if (!participantId.equals(sender.getId()) && !blockedUserIds.contains(participantId)) {
+                    notifications.add(new Notification(
+                            WebSocketDestination.USER_NOTIFICATION_PREFIX + participantId,
+                            webSocketResponse
+                    ));
+                }
             }
+
+            affinityService.recordMessage(chat, sender.getId());
         }
 
-        return messageResponse;
+        chatService.updateChatLastMessages(chatsById, messages, sender);
+
+        notificationService.sendNotifications(notifications);
+
+        return messageResponses;
+    }
+
+    // Disappearing messages count their lifetime from the send
+    private void applyExpiry(Chat chat, Message message) {
+        if (chat.getMessageExpirySeconds() != null) {
+            message.setExpiresAt(Instant.now().plusSeconds(chat.getMessageExpirySeconds()));
+        }
+    }
+
+    // Content, media and type shared by every copy of a batch send
+    private Message createBatchMessageTemplate(BatchSendMessageRequest batchSendMessageRequest, String senderId) {
+        if (batchSendMessageRequest.getForwardMessageId() != null) {
+            Message original = messageRepository.findById(batchSendMessageRequest.getForwardMessageId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Forwarded message not found"));
+
+            Chat originalChat = chatRepository.findById(original.getChatId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Chat not found"));
+            if (!originalChat.getParticipants().contains(senderId)) {
+                throw new NoPermissionException("You are not a participant of this chat");
+            }
+            if (Boolean.TRUE.equals(original.getIsDeleted())) {
+                throw new IllegalArgumentException("Cannot forward a deleted message");
+            }
+            if (original.getMessageType() == MessageType.SYSTEM) {
+                throw new IllegalArgumentException("System messages cannot be forwarded");
+            }
+
+            return Message.builder()
+                    .content(original.getContent())
+                    .mediaUrl(original.getMediaUrl())
+                    .messageType(original.getMessageType())
+                    .build();
+        }
+
+        if (batchSendMessageRequest.getMediaUrl() != null && !batchSendMessageRequest.getMediaUrl().isEmpty()) {
+            return Message.builder()
+                    .content(batchSendMessageRequest.getContent())
+                    .mediaUrl(batchSendMessageRequest.getMediaUrl())
+                    .messageType(MessageType.GIF)
+                    .build();
+        }
+
+        if (batchSendMessageRequest.getContent() == null || batchSendMessageRequest.getContent().isBlank()) {
+            throw new IllegalArgumentException("Message content cannot be empty");
+        }
+        return Message.builder()
+                .content(batchSendMessageRequest.getContent())
+                .messageType(MessageType.TEXT)
+                .build();
     }
 
     @Override
@@ -140,6 +350,9 @@ public class MessageServiceImpl implements MessageService {
             throw new NoPermissionException("You are not a participant of this chat");
         }
 
+        Set<String> blockedUserIds = blockListCache.getBlockedUserIds(currentUserId);
+        checkNotBlocked(chat, currentUserId, blockedUserIds);
+
         Message message = Message.builder()
                 .chatId(sendMessageRequest.getChatId())
                 .senderId(currentUserId)
@@ -183,7 +396,7 @@ public class MessageServiceImpl implements MessageService {
                 throw new IllegalArgumentException("Invalid system message action for video call");
         }
 
-        messageRepository.save(message);
+        messageGroupCommitWriter.insert(message);
 
         MessageResponse messageResponse = messageMapper.toMessageResponse(message);
         messageResponse.setSenderName(currentUser.getUser().getFullName());
@@ -198,15 +411,7 @@ public class MessageServiceImpl implements MessageService {
 
         chatService.updateChatLastMessage(chat, message, currentUser.getUser());
 
-        // Send notification to all participants
-        for (String participantId : chat.getParticipants()) {
-            if (!participantId.equals(currentUserId)) {
-                notificationService.sendNotification(
-                        WebSocketDestination.USER_NOTIFICATION_PREFIX + participantId,
-                        webSocketResponse
-                );
-            }
-        }
+        notifyParticipants(chat, currentUserId, blockedUserIds, webSocketResponse);
 
         return messageResponse;
     }
@@ -328,6 +533,127 @@ public class MessageServiceImpl implements MessageService {
         }
     }
 
+    /**
+    Low latency mode for text messages: the message is broadcast before it is stored and persisted in the background.
+    The chat then receives MESSAGE_CONFIRMED or MESSAGE_FAILED for it, the other side effects of a send
+    (last message, notifications) only happen once the message is stored.
+    **/
+    private MessageResponse sendPending(Chat chat, Message message, User sender, Set<String> blockedUserIds) throws Exception {
+        messageGroupCommitWriter.assignIdentity(message);
+        // Written before the background insert starts, so its failure path always finds the id to release
+        recordSentMessage(message);
+
+        MessageResponse messageResponse = messageMapper.toMessageResponse(message);
+        messageResponse.setSenderName(sender.getFullName());
+        messageResponse.setIsPending(true);
+
+        messagingTemplate.convertAndSend(
+                WebSocketDestination.CHAT_TOPIC_PREFIX + chat.getId(),
+                new WebSocketResponse<>(ChatEvent.NEW_MESSAGE, messageResponse)
+        );
+
+        Thread.ofVirtual().start(() -> persistPending(chat, message, sender, blockedUserIds, messageResponse));
+
+        return messageResponse;
+    }
+
+    private void persistPending(Chat chat, Message message, User sender, Set<String> blockedUserIds, MessageResponse messageResponse) {
+        String destination = WebSocketDestination.CHAT_TOPIC_PREFIX + chat.getId();
+        MessageStatusResponse.MessageStatusResponseBuilder status = MessageStatusResponse.builder()
+                .id(message.getId())
+                .chatId(chat.getId())
+                .seq(message.getSeq());
+
+        try {
+            messageGroupCommitWriter.insert(message);
+        } catch (Exception e) {
+            log.warn("Could not store pending message {} in chat {}: {}", message.getId(), chat.getId(), e.getMessage());
+            if (message.getClientMessageId() != null) {
+                releaseDedupKey(generateDedupKey(sender.getId(), message.getClientMessageId()), message.getId());
+            }
+            messagingTemplate.convertAndSend(destination,
+                    new WebSocketResponse<>(ChatEvent.MESSAGE_FAILED, status.error("Message could not be saved").build()));
+            return;
+        }
+
+        messagingTemplate.convertAndSend(destination, new WebSocketResponse<>(ChatEvent.MESSAGE_CONFIRMED, status.build()));
+
+        chatService.updateChatLastMessage(chat, message, sender);
+        affinityService.recordMessage(chat, sender.getId());
+
+        messageResponse.setIsPending(false);
+        notifyParticipants(chat, sender.getId(), blockedUserIds, new WebSocketResponse<>(ChatEvent.NEW_MESSAGE, messageResponse));
+    }
+
+    // Waits while the original send is still running, it resolves to its message or frees the key when it fails
+    private MessageResponse findOriginalMessage(String dedupKey, SendMessageRequest sendMessageRequest, MultipartFile mediaFile,
+                                                boolean allowPending) throws Exception {
+        for (int attempt = 0; attempt < DEDUP_WAIT_ATTEMPTS; attempt++) {
+            Object value = redisTemplate.opsForValue().get(dedupKey);
+            if (value == null) {
+                return sendMessage(sendMessageRequest, mediaFile, allowPending);
+            }
+
+            // In low latency mode the id is known before the message is stored
+            if (!PENDING_SEND.equals(value.toString())) {
+                Optional<Message> original = messageRepository.findById(value.toString());
+                if (original.isPresent()) {
+                    MessageResponse messageResponse = messageMapper.toMessageResponse(original.get());
+                    messageResponse.setSenderName(currentUserService.getCurrentUser().getUser().getFullName());
+                    return messageResponse;
+                }
+            }
+
+            Thread.sleep(DEDUP_WAIT_INTERVAL);
+        }
+        throw new DataInUseException("Message " + sendMessageRequest.getClientMessageId() + " is still being sent");
+    }
+
+    // For a sender whose attempt stopped mid-send, a key naming a stored message is kept so the retry returns it
+    @Override
+    public void releasePendingSend(String senderId, String clientMessageId) {
+        releaseDedupKey(generateDedupKey(senderId, clientMessageId), PENDING_SEND);
+    }
+
+    private void recordSentMessage(Message message) {
+        if (message.getClientMessageId() != null) {
+            redisTemplate.opsForValue().set(generateDedupKey(message.getSenderId(), message.getClientMessageId()),
+                    message.getId(), CacheConstant.MESSAGE_DEDUP_TTL);
+        }
+    }
+
+    private void releaseDedupKey(String dedupKey, String expectedValue) {
+        redisTemplate.execute(RELEASE_DEDUP_SCRIPT, List.of(dedupKey), expectedValue);
+    }
+
+    private String generateDedupKey(String senderId, String clientMessageId) {
+        return CacheConstant.MESSAGE_DEDUP_PREFIX + senderId + ":" + clientMessageId;
+    }
+
+    // Send notification to all participants, except group members with a block between them and the sender
+    private void notifyParticipants(Chat chat, String senderId, Set<String> blockedUserIds, WebSocketResponse<MessageResponse> webSocketResponse) {
+        for (String participantId : chat.getParticipants()) {
+            if (!participantId.equals(senderId) && !blockedUserIds.contains(participantId)) {
+                notificationService.sendNotification(
+                        WebSocketDestination.USER_NOTIFICATION_PREFIX + participantId,
+                        webSocketResponse
+                );
+            }
+        }
+    }
+
+    // Blocks close private chats in both directions, group chats stay usable
+    private void checkNotBlocked(Chat chat, String senderId, Set<String> blockedUserIds) {
+        if (Boolean.TRUE.equals(chat.getIsGroupChat()) || blockedUserIds.isEmpty()) {
+            return;
+        }
+        for (String participantId : chat.getParticipants()) {
+            if (!participantId.equals(senderId) && blockedUserIds.contains(participantId)) {
+                throw new NoPermissionException("You cannot send messages to this user");
+            }
+        }
+    }
+
     private MessageType getMessageTypeFromFile(MultipartFile mediaFile) {
         String mediaType = mediaFile.getContentType();
         MessageType messageType = MessageType.TEXT;
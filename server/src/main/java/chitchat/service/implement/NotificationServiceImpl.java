@@ -6,6 +6,8 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class NotificationServiceImpl implements NotificationService {
@@ -23,4 +25,13 @@ public class NotificationServiceImpl implements NotificationService {
 //        }
         messagingTemplate.convertAndSend(destination, payload);
     }
+
+    // A whole fan-out is handed over as one task instead of one task per recipient
+    @Async
+    @Override
+    public void sendNotifications(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            messagingTemplate.convertAndSend(notification.destination(), notification.payload());
+        }
+    }
 }
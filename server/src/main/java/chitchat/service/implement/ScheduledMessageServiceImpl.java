@@ -0,0 +1,335 @@
+package chitchat.service.implement;
+
+import chitchat.dto.request.message.ScheduleMessageRequest;
+import chitchat.dto.request.message.SendMessageRequest;
+import chitchat.dto.response.message.MessageResponse;
+import chitchat.dto.response.message.ScheduledMessageResponse;
+import chitchat.exception.InvalidDataException;
+import chitchat.exception.NoPermissionException;
+import chitchat.exception.ResourceNotFoundException;
+import chitchat.model.Chat;
+import chitchat.model.Message;
+import chitchat.model.ScheduledMessage;
+import chitchat.model.User;
+import chitchat.model.enumeration.ScheduledMessageStatus;
+import chitchat.model.security.CustomUserDetails;
+import chitchat.repository.ChatRepository;
+import chitchat.repository.ScheduledMessageRepository;
+import chitchat.repository.UserRepository;
+import chitchat.security.service.CurrentUserService;
+import chitchat.service.interfaces.MessageService;
+import chitchat.service.interfaces.ScheduledMessageService;
+import chitchat.utils.HashedWheelTimer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+Messages sent at a later time. Scheduled sends are stored in scheduled_messages with an index on status and due time,
+only the next ten minutes of them are kept in a hashed wheel timer, reloaded from the index every five minutes and at startup.
+A due send is claimed with a conditional update so exactly one instance fires it, then goes through the normal
+send pipeline as its sender, on its durable path even in low latency mode. A claim left behind by a crashed instance is retried once it is stale,
+the client message id derived from the scheduled message keeps the retry from sending twice: a message the crashed
+attempt already stored completes the send, otherwise its pending dedup entry is released and the send runs again.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduledMessageServiceImpl implements ScheduledMessageService {
+
+    private static final Duration HORIZON = Duration.ofMinutes(10);
+    private static final Duration TICK = Duration.ofSeconds(1);
+    private static final Duration STALE_CLAIM = Duration.ofMinutes(5);
+    private static final Duration MAX_SCHEDULE_AHEAD = Duration.ofDays(365);
+    private static final int MAX_PENDING_PER_USER = 100;
+    private static final String CLIENT_MESSAGE_ID_PREFIX = "scheduled-";
+
+    private final ScheduledMessageRepository scheduledMessageRepository;
+    private final ChatRepository chatRepository;
+    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final MessageService messageService;
+    private final MongoTemplate mongoTemplate;
+
+    private final HashedWheelTimer<String> timer =
+            new HashedWheelTimer<>("scheduled-messages", TICK, (int) (HORIZON.toMillis() / TICK.toMillis()));
+
+    @PostConstruct
+    public void start() {
+        // Sends block on Mongo and the broker, each one runs on its own virtual thread instead of the timer thread
+        timer.start(ids -> ids.forEach(id -> Thread.ofVirtual().start(() -> fire(id))));
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.stop();
+    }
+
+    @Override
+    public ScheduledMessageResponse scheduleMessage(ScheduleMessageRequest scheduleMessageRequest) {
+        User currentUser = currentUserService.getCurrentUser().getUser();
+
+        validateRequest(scheduleMessageRequest);
+        checkParticipant(scheduleMessageRequest.getChatId(), currentUser.getId());
+
+        if (scheduledMessageRepository.countBySenderIdAndStatus(currentUser.getId(), ScheduledMessageStatus.SCHEDULED) >= MAX_PENDING_PER_USER) {
+            throw new InvalidDataException("You cannot have more than " + MAX_PENDING_PER_USER + " scheduled messages");
+        }
+
+        ScheduledMessage scheduledMessage = scheduledMessageRepository.save(ScheduledMessage.builder()
+                .chatId(scheduleMessageRequest.getChatId())
+                .senderId(currentUser.getId())
+                .content(scheduleMessageRequest.getContent())
+                .mediaUrl(scheduleMessageRequest.getMediaUrl())
+                .replyToMessageId(scheduleMessageRequest.getReplyToMessageId())
+                .dueAt(scheduleMessageRequest.getDueAt())
+                .build());
+
+        track(scheduledMessage);
+
+        return toScheduledMessageResponse(scheduledMessage);
+    }
+
+    @Override
+    public List<ScheduledMessageResponse> getMyScheduledMessages(String chatId) {
+        String currentUserId = currentUserService.getCurrentUser().getUser().getId();
+
+        return scheduledMessageRepository.findBySenderIdAndStatus(currentUserId, ScheduledMessageStatus.SCHEDULED).stream()
+                .filter(scheduledMessage -> chatId == null || chatId.equals(scheduledMessage.getChatId()))
+                .map(this::toScheduledMessageResponse)
+                .toList();
+    }
+
+    @Override
+    public ScheduledMessageResponse updateScheduledMessage(String scheduledMessageId, ScheduleMessageRequest scheduleMessageRequest) {
+        ScheduledMessage scheduledMessage = findOwnScheduledMessage(scheduledMessageId);
+
+        validateRequest(scheduleMessageRequest);
+        if (scheduleMessageRequest.getChatId() != null && !scheduledMessage.getChatId().equals(scheduleMessageRequest.getChatId())) {
+            throw new InvalidDataException("A scheduled message cannot be moved to another chat");
+        }
+
+        // Conditional on the status, a send that was claimed in the meantime is not edited after the fact
+        ScheduledMessage updated = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(scheduledMessageId).and("status").is(ScheduledMessageStatus.SCHEDULED)),
+                new Update()
+                        .set("content", scheduleMessageRequest.getContent())
+                        .set("mediaUrl", scheduleMessageRequest.getMediaUrl())
+                        .set("replyToMessageId", scheduleMessageRequest.getReplyToMessageId())
+                        .set("dueAt", scheduleMessageRequest.getDueAt())
+                        .set("updatedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(true),
+                ScheduledMessage.class
+        );
+        if (updated == null) {
+            throw new InvalidDataException("The scheduled message has already been sent or cancelled");
+        }
+
+        // Other instances holding the old due time fail to claim it before the new one, their next reload picks it up
+        timer.cancel(scheduledMessageId);
+        track(updated);
+
+        return toScheduledMessageResponse(updated);
+    }
+
+    @Override
+    public void cancelScheduledMessage(String scheduledMessageId) {
+        findOwnScheduledMessage(scheduledMessageId);
+
+        ScheduledMessage cancelled = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(scheduledMessageId).and("status").is(ScheduledMessageStatus.SCHEDULED)),
+                new Update()
+                        .set("status", ScheduledMessageStatus.CANCELLED)
+                        .set("updatedAt", Instant.now()),
+                ScheduledMessage.class
+        );
+        if (cancelled == null) {
+            throw new InvalidDataException("The scheduled message has already been sent or cancelled");
+        }
+
+        timer.cancel(scheduledMessageId);
+    }
+
+    // Runs at startup and twice per horizon, also picks up sends that are overdue after a restart
+    @Scheduled(fixedDelay = 300_000)
+    public void loadHorizon() {
+        Instant now = Instant.now();
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(ScheduledMessageStatus.SCHEDULED).and("dueAt").lt(now.plus(HORIZON)),
+                Criteria.where("status").is(ScheduledMessageStatus.SENDING).and("claimedAt").lt(now.minus(STALE_CLAIM))));
+        query.fields().include("_id", "dueAt");
+
+        int loaded = 0;
+        try (Stream<ScheduledMessage> scheduledMessages = mongoTemplate.stream(query, ScheduledMessage.class)) {
+            for (ScheduledMessage scheduledMessage : (Iterable<ScheduledMessage>) scheduledMessages::iterator) {
+                timer.schedule(scheduledMessage.getId(), scheduledMessage.getDueAt(), scheduledMessage.getId());
+                loaded++;
+            }
+        }
+        if (loaded > 0) {
+            log.info("Loaded {} scheduled messages due within {}", loaded, HORIZON);
+        }
+    }
+
+    private void track(ScheduledMessage scheduledMessage) {
+        if (scheduledMessage.getDueAt().isBefore(Instant.now().plus(HORIZON))) {
+            timer.schedule(scheduledMessage.getId(), scheduledMessage.getDueAt(), scheduledMessage.getId());
+        }
+    }
+
+    private void fire(String scheduledMessageId) {
+        ScheduledMessage scheduledMessage = claim(scheduledMessageId);
+        if (scheduledMessage == null) {
+            // Cancelled, edited to a later time or claimed by another instance
+            return;
+        }
+        String clientMessageId = CLIENT_MESSAGE_ID_PREFIX + scheduledMessage.getId();
+
+        try {
+            if (scheduledMessage.getStatus() == ScheduledMessageStatus.SENDING) {
+                Message storedMessage = findStoredMessage(scheduledMessage, clientMessageId);
+                if (storedMessage != null) {
+                    complete(scheduledMessageId, new Update()
+                            .set("status", ScheduledMessageStatus.SENT)
+                            .set("sentMessageId", storedMessage.getId()));
+                    return;
+                }
+                // Left pending by the stale attempt, it would keep the retry waiting until the entry expires
+                messageService.releasePendingSend(scheduledMessage.getSenderId(), clientMessageId);
+            }
+
+            User sender = userRepository.findById(scheduledMessage.getSenderId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Sender not found"));
+
+            // The send pipeline reads the sender from the security context, like a send over REST or STOMP
+            CustomUserDetails userDetails = new CustomUserDetails(sender);
+            SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+            securityContext.setAuthentication(new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            SecurityContextHolder.setContext(securityContext);
+
+            // Marked SENT from the result, so the send must not return before the message is stored
+            MessageResponse messageResponse = messageService.sendStoredMessage(SendMessageRequest.builder()
+                    .chatId(scheduledMessage.getChatId())
+                    .content(scheduledMessage.getContent())
+                    .mediaUrl(scheduledMessage.getMediaUrl())
+                    .replyToMessageId(scheduledMessage.getReplyToMessageId())
+                    .clientMessageId(clientMessageId)
+                    .build());
+
+            complete(scheduledMessageId, new Update()
+                    .set("status", ScheduledMessageStatus.SENT)
+                    .set("sentMessageId", messageResponse.getId()));
+        } catch (Exception e) {
+            // The sender may have left the chat or been blocked since scheduling, the failure is kept for them to see
+            log.warn("Could not send scheduled message {} to chat {}: {}", scheduledMessageId, scheduledMessage.getChatId(), e.getMessage());
+            complete(scheduledMessageId, new Update()
+                    .set("status", ScheduledMessageStatus.FAILED)
+                    .set("error", e.getMessage()));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    // Returns the scheduled message as it was before the claim, a SENDING status marks the retry of a stale claim
+    private ScheduledMessage claim(String scheduledMessageId) {
+        Instant now = Instant.now();
+        return mongoTemplate.findAndModify(
+                new Query(new Criteria().andOperator(
+                        Criteria.where("_id").is(scheduledMessageId),
+                        new Criteria().orOperator(
+                                Criteria.where("status").is(ScheduledMessageStatus.SCHEDULED).and("dueAt").lte(now.plus(TICK)),
+                                Criteria.where("status").is(ScheduledMessageStatus.SENDING).and("claimedAt").lt(now.minus(STALE_CLAIM))))),
+                new Update()
+                        .set("status", ScheduledMessageStatus.SENDING)
+                        .set("claimedAt", now),
+                FindAndModifyOptions.options().returnNew(false),
+                ScheduledMessage.class
+        );
+    }
+
+    // The stale attempt can only have stored its message after it claimed, the _id index serves that range
+    private Message findStoredMessage(ScheduledMessage scheduledMessage, String clientMessageId) {
+        ObjectId claimedAt = new ObjectId(String.format("%08x%016x", scheduledMessage.getClaimedAt().getEpochSecond(), 0));
+        return mongoTemplate.findOne(new Query(Criteria.where("_id").gte(claimedAt)
+                .and("chatId").is(scheduledMessage.getChatId())
+                .and("senderId").is(scheduledMessage.getSenderId())
+                .and("clientMessageId").is(clientMessageId)), Message.class);
+    }
+
+    private void complete(String scheduledMessageId, Update update) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(scheduledMessageId).and("status").is(ScheduledMessageStatus.SENDING)),
+                update.set("updatedAt", Instant.now()),
+                ScheduledMessage.class
+        );
+    }
+
+    private ScheduledMessage findOwnScheduledMessage(String scheduledMessageId) {
+        ScheduledMessage scheduledMessage = scheduledMessageRepository.findById(scheduledMessageId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scheduled message not found"));
+
+        if (!scheduledMessage.getSenderId().equals(currentUserService.getCurrentUser().getUser().getId())) {
+            throw new NoPermissionException("You do not have permission to change this scheduled message");
+        }
+        return scheduledMessage;
+    }
+
+    private void validateRequest(ScheduleMessageRequest scheduleMessageRequest) {
+        boolean hasContent = scheduleMessageRequest.getContent() != null && !scheduleMessageRequest.getContent().isBlank();
+        boolean hasMedia = scheduleMessageRequest.getMediaUrl() != null && !scheduleMessageRequest.getMediaUrl().isEmpty();
+        if (!hasContent && !hasMedia) {
+            throw new IllegalArgumentException("A scheduled message needs content or a media URL");
+        }
+
+        Instant dueAt = scheduleMessageRequest.getDueAt();
+        if (dueAt == null || !dueAt.isAfter(Instant.now())) {
+            throw new IllegalArgumentException("The due time must be in the future");
+        }
+        if (dueAt.isAfter(Instant.now().plus(MAX_SCHEDULE_AHEAD))) {
+            throw new IllegalArgumentException("Messages can be scheduled at most " + MAX_SCHEDULE_AHEAD.toDays() + " days ahead");
+        }
+    }
+
+    // Membership and blocks are checked again when the message is sent
+    private void checkParticipant(String chatId, String userId) {
+        Chat chat = chatRepository.findById(chatId)
+                .orElseThrow(() -> new ResourceNotFoundException("Chat not found"));
+
+        if (!chat.getParticipants().contains(userId)) {
+            throw new NoPermissionException("You are not a participant of this chat");
+        }
+    }
+
+    private ScheduledMessageResponse toScheduledMessageResponse(ScheduledMessage scheduledMessage) {
+        return ScheduledMessageResponse.builder()
+                .id(scheduledMessage.getId())
+                .chatId(scheduledMessage.getChatId())
+                .content(scheduledMessage.getContent())
+                .mediaUrl(scheduledMessage.getMediaUrl())
+                .replyToMessageId(scheduledMessage.getReplyToMessageId())
+                .dueAt(scheduledMessage.getDueAt())
+                .status(scheduledMessage.getStatus())
+                .sentMessageId(scheduledMessage.getSentMessageId())
+                .error(scheduledMessage.getError())
+                .createdAt(scheduledMessage.getCreatedAt())
+                .updatedAt(scheduledMessage.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package chitchat.service.implement;
+
+import chitchat.constant.CacheConstant;
+import chitchat.dto.response.user.UserRelationshipResponse;
+import chitchat.dto.response.user.UserSuggestionResponse;
+import chitchat.model.Chat;
+import chitchat.model.User;
+import chitchat.repository.ChatRepository;
+import chitchat.repository.UserNodeRepository;
+import chitchat.repository.UserRepository;
+import chitchat.security.service.CurrentUserService;
+import chitchat.service.interfaces.SuggestionService;
+import chitchat.utils.MediaUtils;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+"People you may know": friends of friends and members of the same group chats, ranked by a score
+and stored per user in Redis so reading them is a single cache read.
+Relationship and group membership changes mark users stale, a scheduled job recomputes them in the background.
+**/
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionServiceImpl implements SuggestionService {
+
+    // Friends of friends fetched from the graph before merging with group co-members
+    private static final int CANDIDATE_LIMIT = 200;
+    private static final int STALE_BATCH_SIZE = 100;
+    private static final int MUTUAL_FRIEND_WEIGHT = 2;
+    private static final int SHARED_GROUP_WEIGHT = 1;
+
+    private final UserNodeRepository userNodeRepository;
+    private final UserRepository userRepository;
+    private final ChatRepository chatRepository;
+    private final CurrentUserService currentUserService;
+    private final MediaUtils mediaUtils;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public List<UserSuggestionResponse> getMySuggestions(int limit) {
+        if (limit < 1 || limit > CacheConstant.MAX_SUGGESTIONS_TO_CACHE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + CacheConstant.MAX_SUGGESTIONS_TO_CACHE);
+        }
+
+        String userId = currentUserService.getCurrentUser().getUser().getId();
+
+        Object cachedObject = redisTemplate.opsForValue().get(CacheConstant.SUGGESTIONS_CACHE_PREFIX + userId);
+        List<UserSuggestionResponse> suggestions = cachedObject != null
+                ? objectMapper.convertValue(cachedObject, new TypeReference<>() {})
+                // Only the first read after a day of inactivity computes in the request
+                : refreshSuggestions(userId);
+
+        return suggestions.stream()
+                .limit(limit)
+                .map(suggestion -> {
+                    suggestion.setProfileImageUrl(mediaUtils.resolveMediaUrl(suggestion.getProfileImageUrl()));
+                    return suggestion;
+                })
+                .toList();
+    }
+
+    @Override
+    public void markStale(Collection<String> userIds) {
+        if (!userIds.isEmpty()) {
+            redisTemplate.opsForSet().add(CacheConstant.STALE_SUGGESTIONS_KEY, userIds.toArray());
+        }
+    }
+
+    // SPOP hands every stale user to exactly one instance
+    @Scheduled(fixedDelay = 30_000)
+    public void refreshStaleSuggestions() {
+        List<Object> staleUserIds = redisTemplate.opsForSet().pop(CacheConstant.STALE_SUGGESTIONS_KEY, STALE_BATCH_SIZE);
+        if (staleUserIds == null || staleUserIds.isEmpty()) {
+            return;
+        }
+
+        for (Object staleUserId : staleUserIds) {
+            String userId = staleUserId.toString();
+            // Users without cached suggestions haven't asked for them lately, they are computed on their next read
+            if (!Boolean.TRUE.equals(redisTemplate.hasKey(CacheConstant.SUGGESTIONS_CACHE_PREFIX + userId))) {
+                continue;
+            }
+            try {
+                refreshSuggestions(userId);
+            } catch (Exception e) {
+                log.warn("Could not refresh suggestions for user {}: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    private List<UserSuggestionResponse> refreshSuggestions(String userId) {
+        UserRelationshipResponse relationships = userNodeRepository.getUserRelationshipResponse(userId);
+
+        // Anyone the user already has an edge with is not a suggestion
+        Set<String> excludedUserIds = new HashSet<>();
+        excludedUserIds.add(userId);
+        if (relationships != null) {
+            addAll(excludedUserIds, relationships.getFriends());
+            addAll(excludedUserIds, relationships.getSentRequests());
+            addAll(excludedUserIds, relationships.getReceivedRequests());
+            addAll(excludedUserIds, relationships.getBlocked());
+            addAll(excludedUserIds, relationships.getBlockedBy());
+        }
+
+        Map<String, UserSuggestionResponse> candidates = new HashMap<>();
+        userNodeRepository.getFriendOfFriendCandidates(userId, CANDIDATE_LIMIT)
+                .forEach(candidate -> candidates.put(candidate.getId(), candidate));
+
+        Map<String, Integer> sharedGroupCounts = new HashMap<>();
+        for (Chat chat : chatRepository.findGroupChatParticipantsByParticipantId(userId)) {
+            for (String participantId : chat.getParticipants()) {
+                if (!excludedUserIds.contains(participantId)) {
+                    sharedGroupCounts.merge(participantId, 1, Integer::sum);
+                }
+            }
+        }
+
+        sharedGroupCounts.forEach((candidateId, sharedGroupCount) -> candidates
+                .computeIfAbsent(candidateId, id -> UserSuggestionResponse.builder().id(id).mutualFriendCount(0).build())
+                .setSharedGroupCount(sharedGroupCount));
+
+        // Group co-members that are not friends of friends don't have their profile yet
+        List<String> missingProfileIds = candidates.values().stream()
+                .filter(candidate -> candidate.getFullName() == null)
+                .map(UserSuggestionResponse::getId)
+                .toList();
+        if (!missingProfileIds.isEmpty()) {
+            for (User user : userRepository.findAllById(missingProfileIds)) {
+                UserSuggestionResponse candidate = candidates.get(user.getId());
+                candidate.setFullName(user.getFullName());
+                candidate.setProfileImageUrl(user.getProfileImageUrl());
+            }
+        }
+
+        candidates.values().forEach(candidate -> {
+            int mutualFriendCount = candidate.getMutualFriendCount() != null ? candidate.getMutualFriendCount() : 0;
+            int sharedGroupCount = candidate.getSharedGroupCount() != null ? candidate.getSharedGroupCount() : 0;
+            candidate.setScore(MUTUAL_FRIEND_WEIGHT * mutualFriendCount + SHARED_GROUP_WEIGHT * sharedGroupCount);
+        });
+
+        List<UserSuggestionResponse> suggestions = candidates.values().stream()
+                // Accounts that never completed their profile have nothing to show
+                .filter(candidate -> candidate.getFullName() != null)
+                .sorted(Comparator.comparing(UserSuggestionResponse::getScore).reversed()
+                        .thenComparing(UserSuggestionResponse::getFullName))
+                .limit(CacheConstant.MAX_SUGGESTIONS_TO_CACHE)
+                .toList();
+
+        redisTemplate.opsForValue().set(CacheConstant.SUGGESTIONS_CACHE_PREFIX + userId, suggestions, CacheConstant.SUGGESTIONS_CACHE_TTL);
+
+        return suggestions;
+    }
+
+    private void addAll(Set<String> target, Set<String> ids) {
+        if (ids != null) {
+            target.addAll(ids);
+        }
+    }
+}
@@ -1,52 +1,76 @@
 package chitchat.service.implement;
 
+import chitchat.configuration.neo4j.Neo4jSchemaInitializer;
 import chitchat.constant.CacheConstant;
 import chitchat.dto.response.PageResponse;
+import chitchat.dto.response.event.RelationshipEventResponse;
+import chitchat.dto.response.user.UserRelationshipResponse;
 import chitchat.dto.response.user.UserSearchResponse;
 import chitchat.mapper.UserMapper;
 import chitchat.model.User;
 import chitchat.model.UserNode;
+import chitchat.model.enumeration.NotificationType;
 import chitchat.model.enumeration.RelationshipStatus;
 import chitchat.repository.UserNodeRepository;
 import chitchat.repository.UserRepository;
 import chitchat.security.service.CurrentUserService;
+import chitchat.service.BlockListCache;
+import chitchat.service.RelationshipEventPublisher;
+import chitchat.service.UserGraphProjectionService;
+import chitchat.service.UserNameIndex;
+import chitchat.service.interfaces.AffinityService;
+import chitchat.service.interfaces.SuggestionService;
 import chitchat.service.interfaces.UserNodeService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserNodeServiceImpl implements UserNodeService {
 
+    private static final int RELATIONSHIP_STATUS_BATCH_SIZE = 500;
+
     private final UserNodeRepository userNodeRepository;
     private final UserRepository userRepository;
     private final CurrentUserService currentUserService;
     private final UserMapper userMapper;
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
-
-    @PostConstruct
-    public void createIndexes() {
-        userNodeRepository.createFullTextIndex();
-    }
+    private final Neo4jSchemaInitializer neo4jSchemaInitializer;
+    private final UserNameIndex userNameIndex;
+    private final UserGraphProjectionService userGraphProjectionService;
+    private final SuggestionService suggestionService;
+    private final AffinityService affinityService;
+    private final RelationshipEventPublisher relationshipEventPublisher;
+    private final BlockListCache blockListCache;
 
     @Override
     public void sendFriendRequest(String targetUserId) {
-        String currentUserId = currentUserService.getCurrentUser().getUser().getId();
+        User currentUser = currentUserService.getCurrentUser().getUser();
+        String currentUserId = currentUser.getId();
         if (targetUserId.equals(currentUserId)) {
             throw new IllegalArgumentException("Cannot send friend request to yourself");
         }
-        userNodeRepository.sendFriendRequest(currentUserId, targetUserId);
+        // Nothing is created across a block or an existing relationship, and the target hears nothing about it
+        if (!userNodeRepository.sendFriendRequest(currentUserId, targetUserId)) {
+            return;
+        }
         onRelationshipChange(currentUserId, targetUserId);
+        publishRelationshipEvent(currentUser, targetUserId,
+                NotificationType.FRIEND_REQUEST_RECEIVED, RelationshipStatus.FRIEND_REQUEST_RECEIVED);
     }
 
     /**
@@ -54,16 +78,27 @@ public class UserNodeServiceImpl implements UserNodeService {
     **/
     @Override
     public void cancelFriendRequest(String targetUserId) {
-        String currentUserId = currentUserService.getCurrentUser().getUser().getId();
-        userNodeRepository.cancelFriendRequest(currentUserId, targetUserId);
+        User currentUser = currentUserService.getCurrentUser().getUser();
+        String currentUserId = currentUser.getId();
+        if (!userNodeRepository.cancelFriendRequest(currentUserId, targetUserId)) {
+            return;
+        }
         onRelationshipChange(currentUserId, targetUserId);
+        publishRelationshipEvent(currentUser, targetUserId,
+                NotificationType.FRIEND_REQUEST_CANCELLED, RelationshipStatus.NONE);
     }
 
     @Override
     public void acceptFriendRequest(String targetUserId) {
-        String currentUserId = currentUserService.getCurrentUser().getUser().getId();
-        userNodeRepository.acceptFriendRequest(currentUserId, targetUserId);
+        User currentUser = currentUserService.getCurrentUser().getUser();
+        String currentUserId = currentUser.getId();
+        if (!userNodeRepository.acceptFriendRequest(currentUserId, targetUserId)) {
+            return;
+        }
         onRelationshipChange(currentUserId, targetUserId);
+        markFriendsStale(currentUserId, targetUserId);
+        publishRelationshipEvent(currentUser, targetUserId,
+                NotificationType.FRIEND_REQUEST_ACCEPTED, RelationshipStatus.FRIEND);
     }
 
     /**
@@ -71,16 +106,24 @@ public class UserNodeServiceImpl implements UserNodeService {
     **/
     @Override
     public void rejectFriendRequest(String targetUserId) {
-        String currentUserId = currentUserService.getCurrentUser().getUser().getId();
-        userNodeRepository.rejectFriendRequest(currentUserId, targetUserId);
+        User currentUser = currentUserService.getCurrentUser().getUser();
+        String currentUserId = currentUser.getId();
+        if (!userNodeRepository.rejectFriendRequest(currentUserId, targetUserId)) {
+            return;
+        }
         onRelationshipChange(currentUserId, targetUserId);
+        publishRelationshipEvent(currentUser, targetUserId,
+                NotificationType.FRIEND_REQUEST_REJECTED, RelationshipStatus.NONE);
     }
 
     @Override
     public void removeFriend(String targetUserId) {
         String currentUserId = currentUserService.getCurrentUser().getUser().getId();
-        userNodeRepository.removeFriend(currentUserId, targetUserId);
+        if (!userNodeRepository.removeFriend(currentUserId, targetUserId)) {
+            return;
+        }
         onRelationshipChange(currentUserId, targetUserId);
+        markFriendsStale(currentUserId, targetUserId);
     }
 
     @Override
@@ -89,14 +132,22 @@ public class UserNodeServiceImpl implements UserNodeService {
         if (targetUserId.equals(currentUserId)) {
             throw new IllegalArgumentException("Cannot block yourself");
         }
-        userNodeRepository.blockUser(currentUserId, targetUserId);
+        if (!userNodeRepository.blockUser(currentUserId, targetUserId)) {
+            return;
+        }
+        blockListCache.invalidate(List.of(currentUserId, targetUserId));
         onRelationshipChange(currentUserId, targetUserId);
+        // A block ends any friendship between the two
+        markFriendsStale(currentUserId, targetUserId);
     }
 
     @Override
     public void unblockUser(String targetUserId) {
         String currentUserId = currentUserService.getCurrentUser().getUser().getId();
-        userNodeRepository.unblockUser(currentUserId, targetUserId);
+        if (!userNodeRepository.unblockUser(currentUserId, targetUserId)) {
+            return;
+        }
+        blockListCache.invalidate(List.of(currentUserId, targetUserId));
         onRelationshipChange(currentUserId, targetUserId);
     }
 
@@ -136,8 +187,8 @@ public class UserNodeServiceImpl implements UserNodeService {
             }
         }
 
-        // Manual pagination (convert Set to List for ordering)
-        List<String> orderedIds = new ArrayList<>(allFriendIds);
+        // Most interacted friends first, so pickers show likely contacts without a search
+        List<String> orderedIds = affinityService.rankContacts(userId, allFriendIds);
         int total = orderedIds.size();
         int totalPages = (int) Math.ceil((double) total / pageSize);
 
@@ -157,6 +208,18 @@ public class UserNodeServiceImpl implements UserNodeService {
                 .build();
     }
 
+    // Only the users the current user blocked, whoever blocked the current user stays hidden
+    @Override
+    public Set<String> getBlockedUserIds() {
+        String userId = currentUserService.getCurrentUser().getUser().getId();
+        UserRelationshipResponse relationships = getCacheableRelationships(userId);
+        if (relationships == null) {
+            return new HashSet<>(userNodeRepository.findBlockedUserIds(userId));
+        }
+        Set<String> blocked = relationships.getBlocked();
+        return blocked != null ? blocked : Set.of();
+    }
+
     @Override
     public PageResponse<?> getBlockedUsers(int pageNumber, int pageSize) {
         String userId = currentUserService.getCurrentUser().getUser().getId();
@@ -269,55 +332,33 @@ public class UserNodeServiceImpl implements UserNodeService {
     public PageResponse<?> searchFriends(String query, int pageNumber, int pageSize, String sortBy, String sortDirection) {
         String currentUserId = currentUserService.getCurrentUser().getUser().getId();
 
-        // Get friend IDs from cache or database
-        String cacheKey = generateRelationshipCacheKey(currentUserId, CacheConstant.FRIENDS_CACHE_PREFIX);
-        Set<Object> allFriendIdsObject = redisTemplate.opsForSet().members(cacheKey);
-        Set<String> allFriendIds = objectMapper.convertValue(allFriendIdsObject, new TypeReference<>() {});
-
-        if (allFriendIds == null || allFriendIds.isEmpty()) {
-            // Cache miss - load from DB
-            allFriendIds = new HashSet<>(userNodeRepository.findFriendIds(currentUserId));
-            // Cache the result
-            if (!allFriendIds.isEmpty() && allFriendIds.size() <= CacheConstant.MAX_FRIENDS_TO_CACHE) {
-                redisTemplate.opsForSet().add(cacheKey, allFriendIds.toArray(new String[0]));
-                redisTemplate.expire(cacheKey, CacheConstant.FRIENDS_CACHE_TTL);
-            }
-        }
+        List<FriendNameEntry> friendNameIndex = getFriendNameIndex(currentUserId);
+        String normalizedQuery = UserNameIndex.normalize(query);
 
-        if (allFriendIds.isEmpty()) {
-            return PageResponse.builder()
-                    .pageNumber(pageNumber)
-                    .pageSize(pageSize)
-                    .totalElements(0)
-                    .totalPages(0)
-                    .content(new ArrayList<>())
-                    .build();
-        }
+        // The index is kept in name order, so pages come straight out of one pass
+        boolean descending = "fullName".equals(sortBy) && "desc".equals(sortDirection);
+        int fromIndex = toSkip(pageNumber, pageSize);
+        int total = 0;
+        List<UserSearchResponse> pageContent = new ArrayList<>();
 
-        // Search friends by query using MongoDB full-text search
-        List<UserSearchResponse> searchResults = userRepository.searchByFullNameIn(
-                        query.toLowerCase(),
-                        new ArrayList<>(allFriendIds)
-                ).stream()
-                .map(user -> userMapper.toUserSearchResponse(user, RelationshipStatus.FRIEND))
-                .collect(Collectors.toList());
+        for (int i = 0; i < friendNameIndex.size(); i++) {
+            FriendNameEntry entry = friendNameIndex.get(descending ? friendNameIndex.size() - 1 - i : i);
+            if (!entry.getNormalizedName().contains(normalizedQuery)) {
+                continue;
+            }
 
-        // Apply sorting
-        if ("fullName".equals(sortBy)) {
-            if ("desc".equals(sortDirection)) {
-                searchResults.sort((a, b) -> b.getFullName().compareToIgnoreCase(a.getFullName()));
-            } else {
-                searchResults.sort((a, b) -> a.getFullName().compareToIgnoreCase(b.getFullName()));
+            if (total >= fromIndex && pageContent.size() < pageSize) {
+                pageContent.add(UserSearchResponse.builder()
+                        .id(entry.getId())
+                        .fullName(entry.getFullName())
+                        .profileImageUrl(entry.getProfileImageUrl())
+                        .relationshipStatus(RelationshipStatus.FRIEND)
+                        .build());
             }
+            total++;
         }
 
-        // Manual pagination
-        int total = searchResults.size();
         int totalPages = (int) Math.ceil((double) total / pageSize);
-        int fromIndex = Math.min((pageNumber - 1) * pageSize, total);
-        int toIndex = Math.min(fromIndex + pageSize, total);
-
-        List<UserSearchResponse> pageContent = searchResults.subList(fromIndex, toIndex);
 
         return PageResponse.builder()
                 .pageNumber(pageNumber)
@@ -333,7 +374,8 @@ public class UserNodeServiceImpl implements UserNodeService {
                                        int pageNumber,
                                        int pageSize,
                                        String sortBy,
-                                       String sortDirection) {
+                                       String sortDirection,
+                                       boolean includeTotal) {
         if (pageNumber < 1) {
             throw new IllegalArgumentException("Page number must be greater than or equal to 1");
         }
@@ -346,7 +388,12 @@ public class UserNodeServiceImpl implements UserNodeService {
 
         String currentUserId = currentUserService.getCurrentUser().getUser().getId();
 
-        String cacheKey = generateSearchCacheKey(currentUserId, query, pageNumber, pageSize);
+        // The in-memory name index answers faster than a Redis round trip and is always fresh
+        if (userNameIndex.isReady()) {
+            return performSearch(currentUserId, query, pageNumber, pageSize, includeTotal);
+        }
+
+        String cacheKey = generateSearchCacheKey(currentUserId, query, pageNumber, pageSize, includeTotal);
         Object cachedObject = redisTemplate.opsForValue().get(cacheKey);
         var cachedResponse = objectMapper.convertValue(cachedObject, PageResponse.class);
 
@@ -356,7 +403,7 @@ public class UserNodeServiceImpl implements UserNodeService {
 
         @SuppressWarnings("unchecked")
         PageResponse<UserSearchResponse> result = (PageResponse<UserSearchResponse>) performSearch(
-                currentUserId, query, pageNumber, pageSize);
+                currentUserId, query, pageNumber, pageSize, includeTotal);
 
         // Cache the result
         redisTemplate.opsForValue().set(cacheKey, result, CacheConstant.SEARCH_CACHE_TTL);
@@ -366,6 +413,16 @@ public class UserNodeServiceImpl implements UserNodeService {
 
     @Override
     public void updateUserNode(User user) {
+        userNameIndex.put(user);
+
+        // The user's name is part of every friend's name index
+        getFriendIds(user.getId()).forEach(this::bumpFriendNamesVersion);
+
+        // With the projection enabled the graph node follows the users change stream instead
+        if (userGraphProjectionService.isEnabled()) {
+            return;
+        }
+
         userNodeRepository.findByUserId(user.getId()).ifPresent(userNode -> {
             userNode.setFullName(user.getFullName());
             userNode.setProfileImageUrl(user.getProfileImageUrl());
@@ -376,33 +433,276 @@ public class UserNodeServiceImpl implements UserNodeService {
 
     @Override
     public RelationshipStatus getRelationshipBetween(String currentUserId, String targetUserId) {
-        return userNodeRepository.getRelationshipBetween(currentUserId, targetUserId);
+        UserRelationshipResponse relationships = getCacheableRelationships(currentUserId);
+        if (relationships == null) {
+            RelationshipStatus status = userNodeRepository.getRelationshipBetween(currentUserId, targetUserId);
+            return status != null ? status : RelationshipStatus.NONE;
+        }
+        return resolveRelationshipStatus(relationships, targetUserId);
+    }
+
+    @Override
+    public UserRelationshipResponse getUserRelationships(String userId) {
+        // Read the version before the graph: a change committed after this point bumps the version,
+        // so a snapshot loaded here can never be served under the newer version
+        long version = getRelationshipsVersion(userId);
+
+        UserRelationshipResponse cachedRelationships = getCachedUserRelationships(generateRelationshipsCacheKey(userId, version));
+        if (cachedRelationships != null) {
+            return cachedRelationships;
+        }
+
+        return loadUserRelationships(userId, version);
+    }
+
+    /**
+    The relationship snapshot of a user whose snapshot fits the cache, null above MAX_RELATIONSHIPS_TO_CACHE.
+    Such snapshots are never stored, so their callers answer from targeted queries instead of rebuilding it on every call.
+    **/
+    private UserRelationshipResponse getCacheableRelationships(String userId) {
+        long version = getRelationshipsVersion(userId);
+
+        UserRelationshipResponse cachedRelationships = getCachedUserRelationships(generateRelationshipsCacheKey(userId, version));
+        if (cachedRelationships != null) {
+            return cachedRelationships;
+        }
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(generateRelationshipsTooLargeKey(userId, version)))) {
+            return null;
+        }
+
+        UserRelationshipResponse relationships = loadUserRelationships(userId, version);
+        return countRelationships(relationships) <= CacheConstant.MAX_RELATIONSHIPS_TO_CACHE ? relationships : null;
+    }
+
+    private Set<String> getFriendIds(String userId) {
+        UserRelationshipResponse relationships = getCacheableRelationships(userId);
+        return relationships != null ? relationships.getFriends() : new HashSet<>(userNodeRepository.findFriendIds(userId));
+    }
+
+    private UserRelationshipResponse loadUserRelationships(String userId, long version) {
+        UserRelationshipResponse relationships = userNodeRepository.getUserRelationshipResponse(userId);
+        if (relationships == null) {
+            return UserRelationshipResponse.builder()
+                    .friends(Set.of())
+                    .sentRequests(Set.of())
+                    .receivedRequests(Set.of())
+                    .blocked(Set.of())
+                    .blockedBy(Set.of())
+                    .build();
+        }
+
+        if (countRelationships(relationships) <= CacheConstant.MAX_RELATIONSHIPS_TO_CACHE) {
+            redisTemplate.opsForValue().set(generateRelationshipsCacheKey(userId, version), relationships,
+                    CacheConstant.RELATIONSHIPS_CACHE_TTL);
+        } else {
+            // Versioned like the snapshot, a relationship change lets the size be checked again
+            redisTemplate.opsForValue().set(generateRelationshipsTooLargeKey(userId, version), true,
+                    CacheConstant.RELATIONSHIPS_CACHE_TTL);
+        }
+
+        return relationships;
+    }
+
+    /**
+    Resolve the relationship status of the current user against each target user.
+    The current user is never included in the result.
+    **/
+    @Override
+    public Map<String, RelationshipStatus> getRelationshipStatuses(String currentUserId, Collection<String> targetUserIds) {
+        Map<String, RelationshipStatus> statuses = new HashMap<>();
+
+        List<String> targetIds = targetUserIds.stream()
+                .filter(id -> !id.equals(currentUserId))
+                .distinct()
+                .toList();
+
+        if (targetIds.isEmpty()) {
+            return statuses;
+        }
+
+        // Cache hit - resolve every target in memory
+        String cacheKey = generateRelationshipsCacheKey(currentUserId, getRelationshipsVersion(currentUserId));
+        UserRelationshipResponse cachedRelationships = getCachedUserRelationships(cacheKey);
+
+        if (cachedRelationships != null) {
+            targetIds.forEach(id -> statuses.put(id, resolveRelationshipStatus(cachedRelationships, id)));
+            return statuses;
+        }
+
+        // Cache miss - one query per batch instead of one per target
+        for (int fromIndex = 0; fromIndex < targetIds.size(); fromIndex += RELATIONSHIP_STATUS_BATCH_SIZE) {
+            int toIndex = Math.min(fromIndex + RELATIONSHIP_STATUS_BATCH_SIZE, targetIds.size());
+
+            userNodeRepository.getRelationshipStatusesIn(currentUserId, targetIds.subList(fromIndex, toIndex))
+                    .forEach(result -> statuses.put(result.getId(), result.getRelationshipStatus()));
+        }
+
+        // Targets without a graph node have no relationship
+        targetIds.forEach(id -> statuses.putIfAbsent(id, RelationshipStatus.NONE));
+
+        return statuses;
+    }
+
+    /**
+    Count the friends the current user shares with each target user.
+    Targets whose relationship snapshot is cached are intersected in memory against the current user's
+    friend set, the remaining ones are counted with a single batched query.
+    **/
+    @Override
+    public Map<String, Integer> getMutualFriendCounts(String currentUserId, Collection<String> targetUserIds) {
+        Map<String, Integer> counts = new HashMap<>();
+
+        List<String> targetIds = targetUserIds.stream()
+                .filter(id -> !id.equals(currentUserId))
+                .distinct()
+                .toList();
+
+        if (targetIds.isEmpty()) {
+            return counts;
+        }
+
+        UserRelationshipResponse relationships = getCacheableRelationships(currentUserId);
+        if (relationships == null) {
+            // Too many friends to intersect in memory, the graph counts every target
+            userNodeRepository.getMutualFriendCountsIn(currentUserId, targetIds)
+                    .forEach(result -> counts.put(result.getId(), result.getMutualFriendCount()));
+            targetIds.forEach(id -> counts.putIfAbsent(id, 0));
+            return counts;
+        }
+
+        Set<String> friendIds = relationships.getFriends();
+        if (friendIds == null || friendIds.isEmpty()) {
+            targetIds.forEach(id -> counts.put(id, 0));
+            return counts;
+        }
+
+        Map<String, UserRelationshipResponse> cachedRelationships = getCachedUserRelationships(targetIds);
+        List<String> uncachedIds = new ArrayList<>();
+
+        for (String targetId : targetIds) {
+            UserRelationshipResponse targetRelationships = cachedRelationships.get(targetId);
+            if (targetRelationships == null) {
+                uncachedIds.add(targetId);
+                continue;
+            }
+
+            // Walk the smaller set and probe the larger one
+            Set<String> targetFriendIds = targetRelationships.getFriends() != null ? targetRelationships.getFriends() : Set.of();
+            Set<String> smaller = targetFriendIds.size() < friendIds.size() ? targetFriendIds : friendIds;
+            Set<String> larger = smaller == friendIds ? targetFriendIds : friendIds;
+
+            int mutualCount = 0;
+            for (String id : smaller) {
+                if (larger.contains(id)) {
+                    mutualCount++;
+                }
+            }
+            counts.put(targetId, mutualCount);
+        }
+
+        if (!uncachedIds.isEmpty()) {
+            userNodeRepository.getMutualFriendCountsIn(currentUserId, uncachedIds)
+                    .forEach(result -> counts.put(result.getId(), result.getMutualFriendCount()));
+            uncachedIds.forEach(id -> counts.putIfAbsent(id, 0));
+        }
+
+        return counts;
+    }
+
+    // Used by bulk writes that change many relationships at once, exact keys only so it stays cheap per user
+    @Override
+    public void invalidateRelationships(Collection<String> userIds) {
+        List<String> keys = new ArrayList<>();
+        for (String userId : userIds) {
+            bumpRelationshipsVersion(userId);
+            keys.add(generateRelationshipCacheKey(userId, CacheConstant.FRIENDS_CACHE_PREFIX));
+            keys.add(generateRelationshipCacheKey(userId, CacheConstant.INCOMING_REQUESTS_CACHE_PREFIX));
+            keys.add(generateRelationshipCacheKey(userId, CacheConstant.SENT_REQUESTS_CACHE_PREFIX));
+        }
+        if (!keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+        suggestionService.markStale(userIds);
     }
 
     private PageResponse<?> performSearch(String currentUserId,
                                           String query,
                                           int pageNumber,
-                                          int pageSize) {
+                                          int pageSize,
+                                          boolean includeTotal) {
 
         int skip = toSkip(pageNumber, pageSize);
 
-        List<UserSearchResponse> response;
-        long totalElements;
+        // Build the viewer's relationship overlay and block filter once instead of per candidate,
+        // a viewer with too many relationships to cache gets both from targeted queries
+        UserRelationshipResponse relationships = getCacheableRelationships(currentUserId);
+        Set<String> excludedUserIds;
+        if (relationships != null) {
+            excludedUserIds = new HashSet<>(relationships.getBlocked());
+            excludedUserIds.addAll(relationships.getBlockedBy());
+        } else {
+            excludedUserIds = new HashSet<>(userNodeRepository.getAllBlockedUserIds(currentUserId));
+        }
 
-        // Try full-text search first
-        if (userNodeRepository.fullTextIndexExists()) {
-            response = userNodeRepository.searchUsersWithRelationshipsFullText(currentUserId, query, skip, pageSize);
-            totalElements = userNodeRepository.countSearchResultsFullText(currentUserId, query);
+        boolean nameIndexReady = userNameIndex.isReady();
+        boolean fullTextIndexAvailable = neo4jSchemaInitializer.isFullTextIndexAvailable();
+        Predicate<String> visible = userId -> !userId.equals(currentUserId) && !excludedUserIds.contains(userId);
+
+        // Fetch one extra row to know whether there is a next page without counting
+        List<UserSearchResponse> rows;
+        if (nameIndexReady) {
+            rows = userNameIndex.search(query, visible, skip, pageSize + 1).stream()
+                    .map(user -> UserSearchResponse.builder()
+                            .id(user.getId())
+                            .fullName(user.getFullName())
+                            .profileImageUrl(user.getProfileImageUrl())
+                            .build())
+                    .toList();
         }
-        // Fallback to regex search
         else {
-            response = userNodeRepository.searchUsersWithRelationshipsRegex(currentUserId, query, skip, pageSize);
-            totalElements = userNodeRepository.countSearchResultsRegex(currentUserId, query);
+            rows = fullTextIndexAvailable
+                    ? userNodeRepository.searchUsersFullText(currentUserId, query, excludedUserIds, skip, pageSize + 1)
+                    : userNodeRepository.searchUsersRegex(currentUserId, query, excludedUserIds, skip, pageSize + 1);
         }
 
+        boolean hasMore = rows.size() > pageSize;
+        List<UserSearchResponse> response = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<String> responseIds = response.stream().map(UserSearchResponse::getId).toList();
+        Map<String, Integer> mutualFriendCounts = getMutualFriendCounts(currentUserId, responseIds);
+        Map<String, RelationshipStatus> relationshipStatuses = relationships == null
+                ? getRelationshipStatuses(currentUserId, responseIds)
+                : Map.of();
+
+        response.forEach(user -> {
+            user.setRelationshipStatus(relationships != null
+                    ? resolveRelationshipStatus(relationships, user.getId())
+                    : relationshipStatuses.get(user.getId()));
+            user.setMutualFriendCount(mutualFriendCounts.get(user.getId()));
+        });
         response = userMapper.resolveProfileImageUrls(response);
 
-        int totalPages = (int) Math.ceil((double) totalElements / pageSize);
+        long totalElements;
+        int totalPages;
+        boolean totalCapped = false;
+
+        if (includeTotal) {
+            if (nameIndexReady) {
+                long count = userNameIndex.count(query, visible);
+                totalCapped = count > UserNameIndex.MAX_COUNT;
+                totalElements = Math.min(count, UserNameIndex.MAX_COUNT);
+            }
+            else {
+                totalElements = fullTextIndexAvailable
+                        ? userNodeRepository.countSearchResultsFullText(currentUserId, query, excludedUserIds)
+                        : userNodeRepository.countSearchResultsRegex(currentUserId, query, excludedUserIds);
+            }
+            totalPages = (int) Math.ceil((double) totalElements / pageSize);
+        }
+        else {
+            totalElements = skip + response.size();
+            totalPages = hasMore ? pageNumber + 1 : pageNumber;
+        }
 
         return PageResponse.builder()
                 .pageNumber(pageNumber)
@@ -410,6 +710,8 @@ public class UserNodeServiceImpl implements UserNodeService {
                 .totalElements(totalElements)
                 .totalPages(totalPages)
                 .content(response)
+                .hasMore(hasMore)
+                .totalCapped(totalCapped ? true : null)
                 .build();
     }
 
@@ -471,6 +773,110 @@ public class UserNodeServiceImpl implements UserNodeService {
                 .toList();
     }
 
+    private List<FriendNameEntry> getFriendNameIndex(String userId) {
+        // Keyed by both versions: a relationship change or a friend's profile update moves to a new key
+        List<Object> versions = redisTemplate.opsForValue().multiGet(List.of(
+                CacheConstant.RELATIONSHIPS_VERSION_PREFIX + userId,
+                CacheConstant.FRIEND_NAMES_VERSION_PREFIX + userId
+        ));
+        String cacheKey = CacheConstant.FRIEND_NAMES_CACHE_PREFIX + userId + ":"
+                + parseVersion(versions, 0) + ":" + parseVersion(versions, 1);
+
+        Object cachedObject = redisTemplate.opsForValue().get(cacheKey);
+        if (cachedObject != null) {
+            return objectMapper.convertValue(cachedObject, new TypeReference<>() {});
+        }
+
+        List<String> friendIds = new ArrayList<>(getFriendIds(userId));
+        if (friendIds.isEmpty()) {
+            return List.of();
+        }
+
+        List<FriendNameEntry> friendNameIndex = getProfilesWithCache(friendIds, RelationshipStatus.FRIEND).stream()
+                .filter(profile -> profile.getFullName() != null)
+                .map(profile -> new FriendNameEntry(
+                        profile.getId(),
+                        profile.getFullName(),
+                        profile.getProfileImageUrl(),
+                        UserNameIndex.normalize(profile.getFullName())
+                ))
+                .sorted(Comparator.comparing(FriendNameEntry::getNormalizedName).thenComparing(FriendNameEntry::getId))
+                .toList();
+
+        if (friendNameIndex.size() <= CacheConstant.MAX_FRIENDS_TO_CACHE) {
+            redisTemplate.opsForValue().set(cacheKey, friendNameIndex, CacheConstant.FRIEND_NAMES_CACHE_TTL);
+        }
+
+        return friendNameIndex;
+    }
+
+    private UserRelationshipResponse getCachedUserRelationships(String cacheKey) {
+        Object cachedObject = redisTemplate.opsForValue().get(cacheKey);
+        return cachedObject != null
+                ? objectMapper.convertValue(cachedObject, UserRelationshipResponse.class)
+                : null;
+    }
+
+    // Two round trips for the whole list: one for the versions, one for the snapshots they address
+    private Map<String, UserRelationshipResponse> getCachedUserRelationships(List<String> userIds) {
+        Map<String, UserRelationshipResponse> result = new HashMap<>();
+
+        List<Object> versions = redisTemplate.opsForValue().multiGet(userIds.stream()
+                .map(id -> CacheConstant.RELATIONSHIPS_VERSION_PREFIX + id)
+                .toList());
+        List<String> cacheKeys = new ArrayList<>(userIds.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            cacheKeys.add(generateRelationshipsCacheKey(userIds.get(i), parseVersion(versions, i)));
+        }
+
+        List<Object> snapshots = redisTemplate.opsForValue().multiGet(cacheKeys);
+        if (snapshots == null) {
+            return result;
+        }
+
+        for (int i = 0; i < userIds.size(); i++) {
+            if (snapshots.get(i) != null) {
+                result.put(userIds.get(i), objectMapper.convertValue(snapshots.get(i), UserRelationshipResponse.class));
+            }
+        }
+        return result;
+    }
+
+    private RelationshipStatus resolveRelationshipStatus(UserRelationshipResponse relationships, String targetUserId) {
+        if (containsId(relationships.getBlocked(), targetUserId)) {
+            return RelationshipStatus.BLOCKED;
+        }
+        if (containsId(relationships.getBlockedBy(), targetUserId)) {
+            return RelationshipStatus.BLOCKED_BY;
+        }
+        if (containsId(relationships.getFriends(), targetUserId)) {
+            return RelationshipStatus.FRIEND;
+        }
+        if (containsId(relationships.getSentRequests(), targetUserId)) {
+            return RelationshipStatus.FRIEND_REQUEST_SENT;
+        }
+        if (containsId(relationships.getReceivedRequests(), targetUserId)) {
+            return RelationshipStatus.FRIEND_REQUEST_RECEIVED;
+        }
+        return RelationshipStatus.NONE;
+    }
+
+    private boolean containsId(Set<String> ids, String id) {
+        return ids != null && ids.contains(id);
+    }
+
+    private int countRelationships(UserRelationshipResponse relationships) {
+        return sizeOf(relationships.getFriends())
+                + sizeOf(relationships.getSentRequests())
+                + sizeOf(relationships.getReceivedRequests())
+                + sizeOf(relationships.getBlocked())
+                + sizeOf(relationships.getBlockedBy());
+    }
+
+    private int sizeOf(Set<String> ids) {
+        return ids != null ? ids.size() : 0;
+    }
+
     private int toSkip(int pageNumber, int pageSize) {
         return (pageNumber - 1) * pageSize;
     }
@@ -481,14 +887,68 @@ public class UserNodeServiceImpl implements UserNodeService {
         invalidateSearchCache(targetUserId);
         invalidateRelationshipCaches(currentUserId);
         invalidateRelationshipCaches(targetUserId);
+        bumpRelationshipsVersion(currentUserId);
+        bumpRelationshipsVersion(targetUserId);
+        suggestionService.markStale(List.of(currentUserId, targetUserId));
+    }
+
+    // A friendship also changes the friend-of-friend candidates and mutual counts seen by the friends of both users
+    private void markFriendsStale(String currentUserId, String targetUserId) {
+        Set<String> friendIds = new HashSet<>(getFriendIds(currentUserId));
+        friendIds.addAll(getFriendIds(targetUserId));
+        friendIds.removeAll(List.of(currentUserId, targetUserId));
+        suggestionService.markStale(friendIds);
+    }
+
+    // Removals and blocks are not announced, the other user should not learn about them
+    private void publishRelationshipEvent(User actor, String recipientId, NotificationType type, RelationshipStatus recipientStatus) {
+        relationshipEventPublisher.publish(recipientId, RelationshipEventResponse.builder()
+                .type(type)
+                .user(userMapper.toUserSearchResponse(actor, recipientStatus))
+                .createdAt(Instant.now())
+                .build());
     }
 
     private String generateRelationshipCacheKey(String userId, String relationship) {
         return relationship + userId;
     }
 
-    private String generateSearchCacheKey(String userId, String query, int pageNumber, int pageSize) {
-        return CacheConstant.SEARCH_CACHE_PREFIX + userId + ":" + query.toLowerCase().trim() + ":" + pageNumber + ":" + pageSize;
+    private String generateRelationshipsCacheKey(String userId, long version) {
+        return CacheConstant.RELATIONSHIPS_CACHE_PREFIX + userId + ":" + version;
+    }
+
+    private String generateRelationshipsTooLargeKey(String userId, long version) {
+        return CacheConstant.RELATIONSHIPS_TOO_LARGE_PREFIX + userId + ":" + version;
+    }
+
+    private long getRelationshipsVersion(String userId) {
+        Object version = redisTemplate.opsForValue().get(CacheConstant.RELATIONSHIPS_VERSION_PREFIX + userId);
+        return version != null ? Long.parseLong(version.toString()) : 0L;
+    }
+
+    private long parseVersion(List<Object> versions, int index) {
+        Object version = versions != null ? versions.get(index) : null;
+        return version != null ? Long.parseLong(version.toString()) : 0L;
+    }
+
+    // Old snapshots are never deleted, they just stop being addressed and expire on their own
+    private void bumpRelationshipsVersion(String userId) {
+        bumpVersion(CacheConstant.RELATIONSHIPS_VERSION_PREFIX + userId);
+    }
+
+    private void bumpFriendNamesVersion(String userId) {
+        bumpVersion(CacheConstant.FRIEND_NAMES_VERSION_PREFIX + userId);
+    }
+
+    // Versions of inactive users expire instead of piling up, every bump extends the expiry
+    private void bumpVersion(String versionKey) {
+        redisTemplate.opsForValue().increment(versionKey);
+        redisTemplate.expire(versionKey, CacheConstant.CACHE_VERSION_TTL);
+    }
+
+    private String generateSearchCacheKey(String userId, String query, int pageNumber, int pageSize, boolean includeTotal) {
+        return CacheConstant.SEARCH_CACHE_PREFIX + userId + ":" + query.toLowerCase().trim() + ":" + pageNumber + ":" + pageSize
+                + (includeTotal ? ":total" : "");
     }
 
     private void invalidateRelationshipCaches(String userId) {
@@ -519,4 +979,14 @@ public class UserNodeServiceImpl implements UserNodeService {
             redisTemplate.delete(keys);
         }
     }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class FriendNameEntry {
+        private String id;
+        private String fullName;
+        private String profileImageUrl;
+        private String normalizedName;
+    }
 }
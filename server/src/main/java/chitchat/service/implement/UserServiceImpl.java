@@ -22,6 +22,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
@@ -54,11 +56,12 @@ public class UserServiceImpl implements UserService {
         user.setProfileCompleted(true);
         userRepository.save(user);
 
-        userNodeService.updateUserNode(user);
-
-        // Update the cache for the user's profile
+        // Update the cache for the user's profile before friends' name indexes are invalidated,
+        // a rebuild triggered by the new version must already read the new profile
         cacheUserProfile(user);
 
+        userNodeService.updateUserNode(user);
+
         return userMapper.toUserInfoResponse(user);
     }
 
@@ -75,15 +78,18 @@ public class UserServiceImpl implements UserService {
         String currentUserId = currentUserDetails.getUser().getId();
 
         if (currentUserId.equals(targetUserId)) {
-            return userMapper.toUserProfileResponse(currentUserDetails.getUser(), null);
+            return userMapper.toUserProfileResponse(currentUserDetails.getUser(), null, null);
         }
 
         User targetUser = userRepository.findById(targetUserId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + targetUserId));
 
         RelationshipStatus status = userNodeService.getRelationshipBetween(currentUserId, targetUserId);
+        Integer mutualFriendCount = userNodeService
+                .getMutualFriendCounts(currentUserId, List.of(targetUserId))
+                .get(targetUserId);
 
-        return userMapper.toUserProfileResponse(targetUser, status);
+        return userMapper.toUserProfileResponse(targetUser, status, mutualFriendCount);
     }
 
     @Async
@@ -0,0 +1,11 @@
+package chitchat.service.interfaces;
+
+import chitchat.model.Chat;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AffinityService {
+    void recordMessage(Chat chat, String senderId);
+    List<String> rankContacts(String userId, Collection<String> contactIds);
+}
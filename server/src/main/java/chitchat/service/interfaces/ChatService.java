@@ -11,12 +11,17 @@ import chitchat.model.User;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
 
 public interface ChatService {
+    // Disappearing messages live at most this long, message archival relies on it
+    long MAX_MESSAGE_EXPIRY_SECONDS = 90L * 24 * 60 * 60;
+
     ChatResponse createChat(CreateChatRequest createChatRequest, MultipartFile chatImageFile) throws Exception;
     ChatResponse getChat(String chatId);
     ChatResponse getChatOverview(String chatId);
     ChatResponse updateChat(String chatId, UpdateChatRequest updateChatRequest, MultipartFile chatImageFile) throws Exception;
+    ChatResponse updateMessageExpiry(String chatId, Long messageExpirySeconds) throws Exception;
     void deleteChat(String chatId);
     void addParticipantsToChat(String chatId, List<String> userIds);
     void removeParticipantFromChat(String chatId, String targetUserId);
@@ -29,4 +34,5 @@ public interface ChatService {
     void handleTypingEvent(TypingEventRequest typingEventRequest);
 
     void updateChatLastMessage(Chat chat, Message lastMessage, User sender);
+    void updateChatLastMessages(Map<String, Chat> chatsById, List<Message> lastMessages, User sender);
 }
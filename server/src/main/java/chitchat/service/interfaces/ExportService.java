@@ -0,0 +1,16 @@
+package chitchat.service.interfaces;
+
+import chitchat.model.enumeration.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+
+public interface ExportService {
+    ChatExport prepareChatExport(String chatId, Long fromSeq, Long toSeq);
+    void writeChatExport(ChatExport chatExport, ExportFormat format, OutputStream output) throws IOException;
+
+    // Sequence range of an export, fixed before streaming starts so a resumed download continues the same export
+    record ChatExport(String chatId, long fromSeq, long toSeq, long lastSeq, Map<String, String> senderNames) {
+    }
+}
@@ -0,0 +1,13 @@
+package chitchat.service.interfaces;
+
+import chitchat.dto.response.admin.ImportBatchResponse;
+import chitchat.model.enumeration.ImportFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+public interface ImportService {
+    void importUsers(InputStream input, ImportFormat format, Consumer<ImportBatchResponse> progressListener) throws IOException;
+    void importFriendships(InputStream input, ImportFormat format, Consumer<ImportBatchResponse> progressListener) throws IOException;
+}
@@ -1,14 +1,20 @@
 package chitchat.service.interfaces;
 
+import chitchat.dto.request.message.BatchSendMessageRequest;
 import chitchat.dto.request.message.SendMessageRequest;
 import chitchat.dto.request.message.UpdateMessageRequest;
 import chitchat.dto.response.message.MessageResponse;
 import chitchat.model.enumeration.SystemMessageAction;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 public interface MessageService {
     MessageResponse sendMessage(SendMessageRequest sendMessageRequest, MultipartFile mediaFile) throws Exception;
+    MessageResponse sendStoredMessage(SendMessageRequest sendMessageRequest) throws Exception;
+    List<MessageResponse> sendMessageToChats(BatchSendMessageRequest batchSendMessageRequest) throws Exception;
     MessageResponse sendVideoCallSystemMessage(SendMessageRequest sendMessageRequest, SystemMessageAction action) throws Exception;
     MessageResponse updateMessage(String messageId, UpdateMessageRequest updateMessageRequest) throws Exception;
     void deleteMessage(String messageId) throws Exception;
+    void releasePendingSend(String senderId, String clientMessageId);
 }
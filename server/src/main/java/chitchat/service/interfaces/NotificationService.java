@@ -1,5 +1,11 @@
 package chitchat.service.interfaces;
 
+import java.util.List;
+
 public interface NotificationService {
     void sendNotification(String destination, Object payload);
+    void sendNotifications(List<Notification> notifications);
+
+    record Notification(String destination, Object payload) {
+    }
 }
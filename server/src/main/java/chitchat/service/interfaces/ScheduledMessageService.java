@@ -0,0 +1,13 @@
+package chitchat.service.interfaces;
+
+import chitchat.dto.request.message.ScheduleMessageRequest;
+import chitchat.dto.response.message.ScheduledMessageResponse;
+
+import java.util.List;
+
+public interface ScheduledMessageService {
+    ScheduledMessageResponse scheduleMessage(ScheduleMessageRequest scheduleMessageRequest);
+    List<ScheduledMessageResponse> getMyScheduledMessages(String chatId);
+    ScheduledMessageResponse updateScheduledMessage(String scheduledMessageId, ScheduleMessageRequest scheduleMessageRequest);
+    void cancelScheduledMessage(String scheduledMessageId);
+}
@@ -0,0 +1,11 @@
+package chitchat.service.interfaces;
+
+import chitchat.dto.response.user.UserSuggestionResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SuggestionService {
+    List<UserSuggestionResponse> getMySuggestions(int limit);
+    void markStale(Collection<String> userIds);
+}
@@ -1,9 +1,14 @@
 package chitchat.service.interfaces;
 
 import chitchat.dto.response.PageResponse;
+import chitchat.dto.response.user.UserRelationshipResponse;
 import chitchat.model.User;
 import chitchat.model.enumeration.RelationshipStatus;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
 public interface UserNodeService {
     void sendFriendRequest(String targetUserId);
     void cancelFriendRequest(String targetUserId);
@@ -15,11 +20,16 @@ public interface UserNodeService {
     PageResponse<?> getAllUsers(int pageNumber, int pageSize);
     PageResponse<?> getFriends(int pageNumber, int pageSize);
     PageResponse<?> getBlockedUsers(int pageNumber, int pageSize);
+    Set<String> getBlockedUserIds();
     PageResponse<?> getIncomingFriendRequests(int pageNumber, int pageSize);
     PageResponse<?> getSentFriendRequests(int pageNumber, int pageSize);
     PageResponse<?> searchFriends(String query, int pageNumber, int pageSize, String sortBy, String sortDirection);
-    PageResponse<?> searchUsers(String query, int pageNumber, int pageSize, String sortBy, String sortDirection);
+    PageResponse<?> searchUsers(String query, int pageNumber, int pageSize, String sortBy, String sortDirection, boolean includeTotal);
 
     void updateUserNode(User user);
     RelationshipStatus getRelationshipBetween(String currentUserId, String targetUserId);
+    UserRelationshipResponse getUserRelationships(String userId);
+    Map<String, RelationshipStatus> getRelationshipStatuses(String currentUserId, Collection<String> targetUserIds);
+    Map<String, Integer> getMutualFriendCounts(String currentUserId, Collection<String> targetUserIds);
+    void invalidateRelationships(Collection<String> userIds);
 }
@@ -0,0 +1,131 @@
+package chitchat.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+In-memory hashed wheel timer: a ring of slots, one per tick, and a single thread that visits the current slot.
+Scheduling and cancelling are O(1) and a tick only touches the entries of its own slot, so the cost of the timer
+depends on what is due, not on how many timeouts are waiting. Deadlines further away than one turn of the wheel
+stay in their slot until the turn they are due in.
+Timeouts are keyed, scheduling an existing key replaces its timeout. Everything due in a tick is handed to the
+handler as one batch on the timer thread.
+**/
+@Slf4j
+public class HashedWheelTimer<T> {
+
+    private final String name;
+    private final long tickMillis;
+    private final List<Map<String, Timeout<T>>> slots;
+    // Key to its timeout, for cancelling without searching the wheel
+    private final Map<String, Timeout<T>> timeouts = new HashMap<>();
+
+    private long processedTick;
+    private volatile boolean running = false;
+    private Thread worker;
+
+    private record Timeout<T>(String key, long deadlineMillis, int slot, T value) {
+    }
+
+    public HashedWheelTimer(String name, Duration tick, int wheelSize) {
+        this.name = name;
+        this.tickMillis = tick.toMillis();
+        this.slots = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            slots.add(new HashMap<>());
+        }
+        this.processedTick = System.currentTimeMillis() / tickMillis;
+    }
+
+    public void start(Consumer<List<T>> handler) {
+        running = true;
+        worker = Thread.ofVirtual().name(name).start(() -> run(handler));
+    }
+
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public synchronized void schedule(String key, Instant deadline, T value) {
+        cancel(key);
+
+        long deadlineMillis = deadline.toEpochMilli();
+        // A deadline in the past goes into the next slot visited, not a full turn later
+        long tick = Math.max(deadlineMillis / tickMillis, processedTick + 1);
+        int slot = (int) (tick % slots.size());
+
+        Timeout<T> timeout = new Timeout<>(key, deadlineMillis, slot, value);
+        slots.get(slot).put(key, timeout);
+        timeouts.put(key, timeout);
+    }
+
+    public synchronized boolean cancel(String key) {
+        Timeout<T> timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        slots.get(timeout.slot()).remove(key);
+        return true;
+    }
+
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    private void run(Consumer<List<T>> handler) {
+        while (running) {
+            try {
+                long nextTickAt = (processedTick() + 1) * tickMillis;
+                long sleepMillis = nextTickAt - System.currentTimeMillis();
+                if (sleepMillis > 0) {
+                    Thread.sleep(sleepMillis);
+                }
+
+                List<T> due = advance(System.currentTimeMillis());
+                if (!due.isEmpty()) {
+                    handler.accept(due);
+                }
+            } catch (InterruptedException e) {
+                if (running) {
+                    log.warn("Timer {} interrupted, continuing", name);
+                }
+            } catch (Exception e) {
+                // A failing batch must not stop the timer, its entries are not retried
+                log.error("Timer {} handler failed", name, e);
+            }
+        }
+    }
+
+    private synchronized long processedTick() {
+        return processedTick;
+    }
+
+    // Visits every slot up to the current tick, a late wake up catches up on the ticks it missed
+    private synchronized List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>();
+        long currentTick = nowMillis / tickMillis;
+        long lastTick = Math.min(currentTick, processedTick + slots.size());
+
+        for (long tick = processedTick + 1; tick <= lastTick; tick++) {
+            Iterator<Timeout<T>> iterator = slots.get((int) (tick % slots.size())).values().iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                // Due within the current tick, entries for a later turn of the wheel stay
+                if (timeout.deadlineMillis() / tickMillis <= currentTick) {
+                    iterator.remove();
+                    timeouts.remove(timeout.key());
+                    due.add(timeout.value());
+                }
+            }
+        }
+        processedTick = currentTick;
+        return due;
+    }
+}
@@ -0,0 +1,189 @@
+package chitchat.benchmark;
+
+import chitchat.model.Message;
+import chitchat.model.MessageBucket;
+import chitchat.model.enumeration.MessageType;
+import chitchat.service.MessageBucketStore;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+Compares the flat messages collection with bucketed storage on the same history:
+document and index count, index size and the latency of loading an older page of a chat.
+Needs a running Mongo and only runs when asked for:
+mvn test -Dtest=MessageBucketBenchmark -Dbenchmark=true -Dbenchmark.messages=10000000 -Dbenchmark.chats=1000
+Everything is written to a throwaway database that is dropped afterwards.
+**/
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MessageBucketBenchmark {
+
+    private static final String DATABASE = "chitchat-bucket-benchmark";
+    private static final int WRITE_BATCH = 10_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGE_LOADS = 2_000;
+    private static final Instant HISTORY_START = Instant.now().minus(365, ChronoUnit.DAYS);
+
+    private record Result(double p50Millis, double p99Millis) {
+    }
+
+    @Test
+    void compareLayouts() {
+        String mongoUri = System.getProperty("benchmark.mongo-uri", "mongodb://localhost:27017");
+        long messages = Long.getLong("benchmark.messages", 10_000_000L);
+        int chats = Integer.getInteger("benchmark.chats", 1_000);
+        int bucketSize = Integer.getInteger("benchmark.bucket-size", 200);
+        long messagesPerChat = messages / chats;
+
+        try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+            try {
+                createIndexes(mongoTemplate);
+
+                System.out.printf("Loading %d messages in %d chats, %d messages per bucket%n", messagesPerChat * chats, chats, bucketSize);
+                load(mongoTemplate, chats, messagesPerChat, bucketSize);
+
+                MessageBucketStore bucketStore = new MessageBucketStore(mongoTemplate, null);
+                ReflectionTestUtils.setField(bucketStore, "enabled", true);
+                ReflectionTestUtils.setField(bucketStore, "bucketSize", bucketSize);
+
+                System.out.printf("%-10s %14s %14s %12s %10s %10s%n",
+                        "layout", "documents", "index MB", "data MB", "p50 ms", "p99 ms");
+
+                report(mongoTemplate, "messages", "flat", measure(chats, messagesPerChat, (chatId, beforeSeq) ->
+                        mongoTemplate.find(new Query(Criteria.where("chatId").is(chatId).and("seq").lt(beforeSeq))
+                                .with(Sort.by(Sort.Direction.DESC, "seq"))
+                                .limit(PAGE_SIZE), Message.class).size()));
+
+                report(mongoTemplate, "message_buckets", "bucketed", measure(chats, messagesPerChat, (chatId, beforeSeq) ->
+                        bucketStore.findBefore(chatId, beforeSeq, PAGE_SIZE).size()));
+            } finally {
+                mongoTemplate.getDb().drop();
+            }
+        }
+    }
+
+    // The same indexes the application creates for each layout
+    private void createIndexes(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(Message.class).ensureIndex(new Index()
+                .on("chatId", Sort.Direction.ASC)
+                .on("seq", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.ASC)
+                .named("chat_seq_index"));
+        mongoTemplate.indexOps(MessageBucket.class).ensureIndex(new Index()
+                .on("chatId", Sort.Direction.ASC)
+                .on("day", Sort.Direction.ASC)
+                .on("count", Sort.Direction.ASC)
+                .named("bucket_append_index"));
+        mongoTemplate.indexOps(MessageBucket.class).ensureIndex(new Index()
+                .on("chatId", Sort.Direction.ASC)
+                .on("firstSeq", Sort.Direction.DESC)
+                .named("bucket_directory_index"));
+    }
+
+    // Both layouts get the identical history, spread evenly over a year
+    private void load(MongoTemplate mongoTemplate, int chats, long messagesPerChat, int bucketSize) {
+        long spacingMillis = ChronoUnit.MILLIS.between(HISTORY_START, Instant.now()) / messagesPerChat;
+        List<Message> flatBatch = new ArrayList<>(WRITE_BATCH);
+        List<MessageBucket> bucketBatch = new ArrayList<>();
+
+        for (int chat = 0; chat < chats; chat++) {
+            String chatId = "chat-" + chat;
+            MessageBucket bucket = null;
+
+            for (long seq = 1; seq <= messagesPerChat; seq++) {
+                Instant sentAt = HISTORY_START.plusMillis(seq * spacingMillis);
+                Message message = Message.builder()
+                        .id(new ObjectId().toHexString())
+                        .chatId(chatId)
+                        .senderId("sender-" + seq % 2)
+                        .seq(seq)
+                        .content("Benchmark message " + seq)
+                        .messageType(MessageType.TEXT)
+                        .build();
+                message.setCreatedAt(sentAt);
+                message.setUpdatedAt(sentAt);
+                flatBatch.add(message);
+
+                Instant day = sentAt.truncatedTo(ChronoUnit.DAYS);
+                if (bucket == null || bucket.getCount() == bucketSize || !bucket.getDay().equals(day)) {
+                    bucket = MessageBucket.builder().chatId(chatId).day(day).firstSeq(seq).count(0).build();
+                    bucketBatch.add(bucket);
+                }
+                bucket.getMessages().add(message);
+                bucket.setLastSeq(seq);
+                bucket.setCount(bucket.getCount() + 1);
+
+                if (flatBatch.size() == WRITE_BATCH) {
+                    mongoTemplate.insert(flatBatch, Message.class);
+                    flatBatch.clear();
+                    // The open bucket of the current chat is written once it is complete
+                    MessageBucket open = bucketBatch.removeLast();
+                    mongoTemplate.insert(bucketBatch, MessageBucket.class);
+                    bucketBatch.clear();
+                    bucketBatch.add(open);
+                }
+            }
+        }
+
+        if (!flatBatch.isEmpty()) {
+            mongoTemplate.insert(flatBatch, Message.class);
+        }
+        if (!bucketBatch.isEmpty()) {
+            mongoTemplate.insert(bucketBatch, MessageBucket.class);
+        }
+    }
+
+    private interface PageLoader {
+        int load(String chatId, long beforeSeq);
+    }
+
+    // Older pages of random chats, the reads the buckets are meant for
+    private Result measure(int chats, long messagesPerChat, PageLoader pageLoader) {
+        long[] latencies = new long[PAGE_LOADS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        for (int i = 0; i < PAGE_LOADS; i++) {
+            String chatId = "chat-" + random.nextInt(chats);
+            long beforeSeq = PAGE_SIZE + 1 + random.nextLong(Math.max(1, messagesPerChat - PAGE_SIZE));
+
+            long start = System.nanoTime();
+            int loaded = pageLoader.load(chatId, beforeSeq);
+            latencies[i] = System.nanoTime() - start;
+
+            if (loaded != PAGE_SIZE) {
+                throw new IllegalStateException("Expected a full page, got " + loaded + " messages");
+            }
+        }
+
+        Arrays.sort(latencies);
+        return new Result(latencies[PAGE_LOADS / 2] / 1e6, latencies[(int) (PAGE_LOADS * 0.99)] / 1e6);
+    }
+
+    private void report(MongoTemplate mongoTemplate, String collection, String layout, Result result) {
+        Document stats = mongoTemplate.getDb().runCommand(new Document("collStats", collection));
+        System.out.printf("%-10s %14d %14.1f %12.1f %10.2f %10.2f%n",
+                layout,
+                ((Number) stats.get("count")).longValue(),
+                ((Number) stats.get("totalIndexSize")).doubleValue() / (1024 * 1024),
+                ((Number) stats.get("size")).doubleValue() / (1024 * 1024),
+                result.p50Millis(),
+                result.p99Millis());
+    }
+}
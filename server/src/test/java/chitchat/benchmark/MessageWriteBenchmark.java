@@ -0,0 +1,127 @@
+package chitchat.benchmark;
+
+import chitchat.model.Message;
+import chitchat.model.enumeration.MessageType;
+import chitchat.repository.ChatRepository;
+import chitchat.repository.MessageRepository;
+import chitchat.service.MessageArchiveService;
+import chitchat.service.MessageGroupCommitWriter;
+import chitchat.service.MessageSequencer;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+Load benchmark comparing one insert per message with the group commit writer at several batch sizes.
+Needs a running Mongo and only runs when asked for:
+mvn test -Dtest=MessageWriteBenchmark -Dbenchmark=true -Dbenchmark.messages=50000 -Dbenchmark.senders=500
+Everything is written to a throwaway database that is dropped afterwards.
+**/
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MessageWriteBenchmark {
+
+    private static final String DATABASE = "chitchat-benchmark";
+    private static final int[] BATCH_SIZES = {16, 64, 256, 1024};
+    private static final int CHATS = 100;
+
+    private record Result(double messagesPerSecond, double p50Millis, double p99Millis) {
+    }
+
+    @Test
+    void compareWriteModes() throws Exception {
+        String mongoUri = System.getProperty("benchmark.mongo-uri", "mongodb://localhost:27017");
+        int messages = Integer.getInteger("benchmark.messages", 50_000);
+        int senders = Integer.getInteger("benchmark.senders", 500);
+
+        try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
+            MongoTemplate mongoTemplate = new MongoTemplate(mongoClient, DATABASE);
+            try {
+                System.out.printf("%d messages from %d concurrent senders%n", messages, senders);
+                System.out.printf("%-14s %8s %12s %10s %10s%n", "mode", "batch", "msg/s", "p50 ms", "p99 ms");
+
+                MessageGroupCommitWriter direct = newWriter(mongoTemplate, false, 1);
+                report("direct", 1, run(direct, messages, senders));
+
+                for (int batchSize : BATCH_SIZES) {
+                    MessageGroupCommitWriter groupCommit = newWriter(mongoTemplate, true, batchSize);
+                    try {
+                        report("group-commit", batchSize, run(groupCommit, messages, senders));
+                    } finally {
+                        groupCommit.stop();
+                    }
+                }
+            } finally {
+                mongoTemplate.getDb().drop();
+            }
+        }
+    }
+
+    private MessageGroupCommitWriter newWriter(MongoTemplate mongoTemplate, boolean enabled, int batchSize) {
+        // Every chat starts from sequence 0, the benchmark measures writes and not the sequencer
+        MessageRepository messageRepository = Mockito.mock(MessageRepository.class);
+        Mockito.when(messageRepository.findFirstByChatIdAndSeqNotNullOrderBySeqDesc(anyString())).thenReturn(Optional.empty());
+        ChatRepository chatRepository = Mockito.mock(ChatRepository.class);
+        Mockito.when(chatRepository.findById(anyString())).thenReturn(Optional.empty());
+
+        MessageGroupCommitWriter writer = new MessageGroupCommitWriter(mongoTemplate,
+                new MessageSequencer(messageRepository, chatRepository, Mockito.mock(MessageArchiveService.class), null));
+        ReflectionTestUtils.setField(writer, "enabled", enabled);
+        ReflectionTestUtils.setField(writer, "batchSize", batchSize);
+        ReflectionTestUtils.setField(writer, "maxDelayMillis", 5L);
+        ReflectionTestUtils.setField(writer, "queueCapacity", 10_000);
+        writer.start();
+        return writer;
+    }
+
+    private Result run(MessageGroupCommitWriter writer, int messages, int senders) {
+        long[] latencies = new long[messages];
+        AtomicInteger nextMessage = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int sender = 0; sender < senders; sender++) {
+                String senderId = "sender-" + sender;
+                executor.submit(() -> {
+                    int i;
+                    while ((i = nextMessage.getAndIncrement()) < messages) {
+                        Message message = Message.builder()
+                                .chatId("chat-" + i % CHATS)
+                                .senderId(senderId)
+                                .content("Benchmark message " + i)
+                                .messageType(MessageType.TEXT)
+                                .build();
+
+                        long sent = System.nanoTime();
+                        writer.insert(message);
+                        latencies[i] = System.nanoTime() - sent;
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(
+                messages * 1e9 / elapsed,
+                latencies[messages / 2] / 1e6,
+                latencies[(int) (messages * 0.99)] / 1e6
+        );
+    }
+
+    private void report(String mode, int batchSize, Result result) {
+        System.out.printf("%-14s %8d %12.0f %10.2f %10.2f%n",
+                mode, batchSize, result.messagesPerSecond(), result.p50Millis(), result.p99Millis());
+    }
+}
@@ -0,0 +1,160 @@
+package chitchat.repository;
+
+import chitchat.configuration.neo4j.Neo4jSchemaInitializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.neo4j.driver.AuthTokens;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.GraphDatabase;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.summary.Plan;
+import org.neo4j.driver.summary.ProfiledPlan;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.data.neo4j.repository.query.Query;
+import org.testcontainers.containers.Neo4jContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+Plan regressions of the Cypher in UserNodeRepository, run against Neo4j in Docker with the startup schema applied.
+Skipped when no Docker daemon is available.
+**/
+@Testcontainers(disabledWithoutDocker = true)
+class UserNodeRepositoryPlanTest {
+
+    // (u:User {userId: $userId}) and (b:User {userId: targetUserId})
+    private static final Pattern ANCHORED_PROPERTY = Pattern.compile("\\((\\w+):User \\{userId: \\$?\\w+}\\)");
+    // MATCH (u:User) WHERE u.userId = $userId
+    private static final Pattern ANCHORED_WHERE = Pattern.compile("\\((\\w+):User\\) WHERE \\1\\.userId = ");
+    private static final long DB_HITS_PER_RELATIONSHIP = 20;
+
+    @Container
+    private static final Neo4jContainer<?> NEO4J = new Neo4jContainer<>("neo4j:5").withoutAuthentication();
+
+    private static Driver driver;
+
+    @BeforeAll
+    static void setUp() {
+        driver = GraphDatabase.driver(NEO4J.getBoltUrl(), AuthTokens.none());
+        new Neo4jSchemaInitializer(Neo4jClient.create(driver)).createSchema();
+
+        // Gives the planner statistics of a populated label instead of an empty one
+        try (Session session = driver.session()) {
+            session.run("""
+                UNWIND range(1, 1000) AS i
+                CREATE (:User {id: randomUUID(), userId: toString(i), fullName: 'User ' + i})
+                """).consume();
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        if (driver != null) {
+            driver.close();
+        }
+    }
+
+    @Test
+    void anchoredLookupsNeverScanTheUserLabel() {
+        int explained = 0;
+
+        for (Method method : UserNodeRepository.class.getDeclaredMethods()) {
+            Query query = method.getAnnotation(Query.class);
+            if (query == null) {
+                continue;
+            }
+            Set<String> anchored = anchoredVariables(query.value());
+            if (anchored.isEmpty()) {
+                continue;
+            }
+
+            // EXPLAIN plans without executing, so write queries and missing parameters are fine
+            Plan plan;
+            try (Session session = driver.session()) {
+                plan = session.run("EXPLAIN " + query.value()).consume().plan();
+            }
+            explained++;
+
+            Set<String> scanned = new HashSet<>();
+            collectScannedVariables(plan, scanned);
+            scanned.retainAll(anchored);
+            assertTrue(scanned.isEmpty(), () -> method.getName() + " scans :User for anchored " + scanned + "\n" + query.value());
+        }
+
+        assertFalse(explained == 0, "No anchored repository queries found");
+    }
+
+    @Test
+    void relationshipSnapshotStaysLinearInRelationships() throws NoSuchMethodException {
+        int friends = 2_000;
+        int requests = 50;
+        try (Session session = driver.session()) {
+            session.run("""
+                CREATE (hub:User {id: randomUUID(), userId: 'hub', fullName: 'Hub'})
+                WITH hub
+                UNWIND range(1, $friends) AS i
+                CREATE (hub)-[:FRIEND]->(:User {id: randomUUID(), userId: 'hub-friend-' + i})
+                """, Map.of("friends", friends)).consume();
+            session.run("""
+                MATCH (hub:User {userId: 'hub'})
+                UNWIND range(1, $requests) AS i
+                CREATE (hub)-[:PENDING_REQUEST]->(:User {id: randomUUID(), userId: 'hub-sent-' + i})
+                CREATE (hub)<-[:PENDING_REQUEST]-(:User {id: randomUUID(), userId: 'hub-received-' + i})
+                """, Map.of("requests", requests)).consume();
+        }
+
+        String cypher = UserNodeRepository.class.getMethod("getUserRelationshipResponse", String.class)
+                .getAnnotation(Query.class).value();
+        ProfiledPlan profile;
+        try (Session session = driver.session()) {
+            profile = session.run("PROFILE " + cypher, Map.of("userId", "hub")).consume().profile();
+        }
+
+        // A handful of hits per relationship, the cartesian product of the types would be millions
+        long relationships = friends + 2L * requests;
+        long dbHits = totalDbHits(profile);
+        assertTrue(dbHits <= DB_HITS_PER_RELATIONSHIP * relationships,
+                () -> "Relationship snapshot took " + dbHits + " db hits for " + relationships + " relationships");
+    }
+
+    private long totalDbHits(ProfiledPlan plan) {
+        long dbHits = plan.dbHits();
+        for (ProfiledPlan child : plan.children()) {
+            dbHits += totalDbHits(child);
+        }
+        return dbHits;
+    }
+
+    private Set<String> anchoredVariables(String cypher) {
+        Set<String> variables = new HashSet<>();
+        for (Pattern pattern : new Pattern[]{ANCHORED_PROPERTY, ANCHORED_WHERE}) {
+            Matcher matcher = pattern.matcher(cypher);
+            while (matcher.find()) {
+                variables.add(matcher.group(1));
+            }
+        }
+        return variables;
+    }
+
+    // Scans are leaves, their identifiers are exactly the node variable they produce
+    private void collectScannedVariables(Plan plan, Set<String> scanned) {
+        String operator = plan.operatorType();
+        if (operator.startsWith("NodeByLabelScan") || operator.startsWith("AllNodesScan")) {
+            scanned.addAll(plan.identifiers());
+        }
+        for (Plan child : plan.children()) {
+            collectScannedVariables(child, scanned);
+        }
+    }
+}